@@ -3,9 +3,11 @@ package ru.practicum.controller.admin;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.openfeign.SpringQueryMap;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.validation.annotation.Validated;
 import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.dto.event.EventCountDto;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.UpdateEventAdminRequestDto;
 import ru.practicum.service.EventService;
@@ -28,7 +30,13 @@ public class AdminEventController {
     }
 
     @GetMapping
-    public List<EventFullDto> search(@SpringQueryMap EventFilter eventFilter) {
-        return eventService.searchAdmin(eventFilter);
+    public ResponseEntity<List<EventFullDto>> search(@SpringQueryMap EventFilter eventFilter) {
+        return eventService.searchAdmin(eventFilter).toResponseEntity();
+    }
+
+    @GetMapping("/count")
+    public EventCountDto count(@SpringQueryMap EventFilter eventFilter,
+                               @RequestParam(defaultValue = "false") boolean approximate) {
+        return eventService.countAdmin(eventFilter, approximate);
     }
 }
\ No newline at end of file
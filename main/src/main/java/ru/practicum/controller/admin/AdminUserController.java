@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.user.RequestUserDto;
@@ -27,10 +28,11 @@ public class AdminUserController {
     }
 
     @GetMapping
-    public List<UserDto> getUsers(@RequestParam(name = "ids", required = false) List<Long> ids,
-                                  @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
-                                  @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return userService.getUsers(ids, from, size);
+    public ResponseEntity<List<UserDto>> getUsers(@RequestParam(name = "ids", required = false) List<Long> ids,
+                                                  @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                  @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                  @RequestParam(name = "cursor", required = false) String cursor) {
+        return userService.getUsers(ids, from, size, cursor).toResponseEntity();
     }
 
     @DeleteMapping("/{userId}")
@@ -10,6 +10,7 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import ru.practicum.service.RequestService;
 
 import java.util.List;
@@ -36,10 +37,11 @@ public class PrivateEventController {
     }
 
     @GetMapping
-    public List<EventShortDto> getUserEvents(@PathVariable Long userId,
-                                             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                             @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return eventService.getUserEvents(userId, from, size);
+    public ResponseEntity<List<EventShortDto>> getUserEvents(@PathVariable Long userId,
+                                                             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                             @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                             @RequestParam(required = false) String cursor) {
+        return eventService.getUserEvents(userId, from, size, cursor).toResponseEntity();
     }
 
     @PatchMapping("/{eventId}")
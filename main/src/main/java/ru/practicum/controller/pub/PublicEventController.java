@@ -3,14 +3,23 @@ package ru.practicum.controller.pub;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cloud.openfeign.SpringQueryMap;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.comment.CommentDto;
+import ru.practicum.dto.event.CalendarDayDto;
 import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.dto.event.EventClusterDto;
+import ru.practicum.dto.event.EventCountDto;
+import ru.practicum.dto.event.EventFacetsDto;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.dto.event.EventSuggestionDto;
 import ru.practicum.service.CommentService;
+import ru.practicum.service.EventCalendarService;
+import ru.practicum.service.EventClusterService;
 import ru.practicum.service.EventService;
+import ru.practicum.service.EventSuggestService;
 
 import java.util.List;
 
@@ -21,6 +30,9 @@ import java.util.List;
 public class PublicEventController {
     private final EventService eventService;
     private final CommentService commentService;
+    private final EventClusterService eventClusterService;
+    private final EventSuggestService eventSuggestService;
+    private final EventCalendarService eventCalendarService;
 
     @GetMapping("/{eventId}")
     public EventFullDto getById(@PathVariable Long eventId, HttpServletRequest request) {
@@ -28,9 +40,39 @@ public class PublicEventController {
     }
 
     @GetMapping
-    public List<EventShortDto> search(@SpringQueryMap EventFilter filter,
-                                      HttpServletRequest request) {
-        return eventService.searchPublic(filter, request);
+    public ResponseEntity<List<EventShortDto>> search(@SpringQueryMap EventFilter filter,
+                                                      HttpServletRequest request) {
+        return eventService.searchPublic(filter, request).toResponseEntity();
+    }
+
+    @GetMapping("/facets")
+    public EventFacetsDto getFacets(@SpringQueryMap EventFilter filter) {
+        return eventService.getFacets(filter);
+    }
+
+    @GetMapping("/count")
+    public EventCountDto count(@SpringQueryMap EventFilter filter) {
+        return eventService.countPublic(filter);
+    }
+
+    @GetMapping("/calendar")
+    public List<CalendarDayDto> getCalendar(@SpringQueryMap EventFilter filter) {
+        return eventCalendarService.getCalendar(filter);
+    }
+
+    @GetMapping("/suggest")
+    public List<EventSuggestionDto> suggest(@RequestParam String prefix,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        return eventSuggestService.suggest(prefix, limit);
+    }
+
+    @GetMapping("/clusters")
+    public List<EventClusterDto> getClusters(@RequestParam double minLat,
+                                             @RequestParam double minLon,
+                                             @RequestParam double maxLat,
+                                             @RequestParam double maxLon,
+                                             @RequestParam int zoom) {
+        return eventClusterService.getClusters(minLat, minLon, maxLat, maxLon, zoom);
     }
 
     @GetMapping("/{eventId}/comments")
@@ -0,0 +1,41 @@
+package ru.practicum.dao;
+
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.model.EventState;
+
+import java.util.Map;
+
+/**
+ * Условия админ поиска в SQL для нативных запросов по events и events_archive (колонки совпадают);
+ * повторяют EventSpecifications.adminSearch.
+ */
+final class AdminSearchSql {
+
+    private AdminSearchSql() {
+    }
+
+    static String conditions(EventFilter filter, Map<String, Object> params) {
+        StringBuilder sql = new StringBuilder();
+        if (filter.getUsers() != null && !filter.getUsers().isEmpty()) {
+            sql.append(" AND e.initiator_id IN (:users)");
+            params.put("users", filter.getUsers());
+        }
+        if (filter.getStates() != null && !filter.getStates().isEmpty()) {
+            sql.append(" AND e.state IN (:states)");
+            params.put("states", filter.getStates().stream().map(EventState::name).toList());
+        }
+        if (filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+            sql.append(" AND e.category_id IN (:categories)");
+            params.put("categories", filter.getCategories());
+        }
+        if (filter.getRangeStart() != null) {
+            sql.append(" AND e.event_date >= :rangeStart");
+            params.put("rangeStart", filter.getRangeStart());
+        }
+        if (filter.getRangeEnd() != null) {
+            sql.append(" AND e.event_date <= :rangeEnd");
+            params.put("rangeEnd", filter.getRangeEnd());
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.dao;
+
+import ru.practicum.dto.event.filter.EventFilter;
+
+import java.util.List;
+
+public interface ArchivedEventPageRepository {
+
+    /**
+     * Id страницы админ поиска по events и events_archive вместе, по возрастанию id. Обе ветки
+     * UNION ALL читают индекс по id, смещение пропускается на уровне id без загрузки событий.
+     */
+    List<Long> findAdminPageIds(EventFilter filter, int offset, int limit);
+}
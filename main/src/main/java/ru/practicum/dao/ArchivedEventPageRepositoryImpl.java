@@ -0,0 +1,33 @@
+package ru.practicum.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.event.filter.EventFilter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Transactional(readOnly = true)
+public class ArchivedEventPageRepositoryImpl implements ArchivedEventPageRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> findAdminPageIds(EventFilter filter, int offset, int limit) {
+        Map<String, Object> params = new HashMap<>();
+        String conditions = AdminSearchSql.conditions(filter, params);
+        String sql = "SELECT e.id FROM events e WHERE TRUE" + conditions +
+                " UNION ALL SELECT e.id FROM events_archive e WHERE TRUE" + conditions +
+                " ORDER BY id OFFSET :offset LIMIT :limit";
+        Query query = entityManager.createNativeQuery(sql, Long.class);
+        params.forEach(query::setParameter);
+        query.setParameter("offset", offset);
+        query.setParameter("limit", limit);
+        return query.getResultList();
+    }
+}
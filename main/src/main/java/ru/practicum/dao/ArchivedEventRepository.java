@@ -0,0 +1,75 @@
+package ru.practicum.dao;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.model.ArchivedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedEventRepository extends JpaRepository<ArchivedEvent, Long>, JpaSpecificationExecutor<ArchivedEvent>,
+        ArchivedEventPageRepository {
+
+    String EVENT_COLUMNS = "id, title, annotation, description, event_date, created_on, published_on, " +
+            "initiator_id, lat, lon, category_id, state, paid, participant_limit, request_moderation, " +
+            "confirmed_requests, views";
+
+    /**
+     * Одним оператором переносит в архив до limit событий с датой раньше before вместе с заявками
+     * и комментариями. События из подборок остаются в events. Строки, заблокированные другими
+     * транзакциями, пропускаются до следующего запуска.
+     *
+     * @return id перенесенных событий
+     */
+    @Query(value = "WITH batch AS (SELECT e.id FROM events e WHERE e.event_date < :before " +
+            "AND NOT EXISTS (SELECT 1 FROM compilation_events ce WHERE ce.event_id = e.id) " +
+            "ORDER BY e.event_date LIMIT :limit FOR UPDATE SKIP LOCKED), " +
+            "moved_requests AS (DELETE FROM requests r USING batch b WHERE r.event_id = b.id " +
+            "RETURNING r.id, r.created, r.requester_id, r.event_id, r.status), " +
+            "archived_requests AS (INSERT INTO requests_archive (id, created, requester_id, event_id, status) " +
+            "SELECT * FROM moved_requests), " +
+            "moved_comments AS (DELETE FROM comments c USING batch b WHERE c.event_id = b.id " +
+            "RETURNING c.id, c.event_id, c.author_id, c.description, c.created), " +
+            "archived_comments AS (INSERT INTO comments_archive (id, event_id, author_id, description, created) " +
+            "SELECT * FROM moved_comments), " +
+            "moved_events AS (DELETE FROM events e USING batch b WHERE e.id = b.id RETURNING e.*) " +
+            "INSERT INTO events_archive (" + EVENT_COLUMNS + ", archived_on) " +
+            "SELECT " + EVENT_COLUMNS + ", LOCALTIMESTAMP FROM moved_events RETURNING id",
+            nativeQuery = true)
+    List<Long> archiveBatch(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    boolean existsByCategoryId(Long categoryId);
+
+    boolean existsByInitiatorId(Long initiatorId);
+
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    Optional<ArchivedEvent> findWithCategoryAndInitiatorById(Long id);
+
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    Optional<ArchivedEvent> findByIdAndInitiatorId(Long id, Long initiatorId);
+
+    /**
+     * Id страницы событий инициатора из events и events_archive вместе, по убыванию даты и id.
+     */
+    @Query(value = "SELECT id FROM (SELECT id, event_date FROM events WHERE initiator_id = :userId " +
+            "UNION ALL SELECT id, event_date FROM events_archive WHERE initiator_id = :userId) e " +
+            "ORDER BY event_date DESC, id DESC OFFSET :offset LIMIT :limit", nativeQuery = true)
+    List<Long> findInitiatorPageIds(@Param("userId") Long userId, @Param("offset") int offset, @Param("limit") int limit);
+
+    /**
+     * То же для курсора: события строго после (eventDate, id) в порядке убывания.
+     */
+    @Query(value = "SELECT id FROM (SELECT id, event_date FROM events WHERE initiator_id = :userId " +
+            "UNION ALL SELECT id, event_date FROM events_archive WHERE initiator_id = :userId) e " +
+            "WHERE (event_date, id) < (:eventDate, :id) " +
+            "ORDER BY event_date DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<Long> findInitiatorPageIdsAfter(@Param("userId") Long userId, @Param("eventDate") LocalDateTime eventDate,
+                                         @Param("id") Long id, @Param("limit") int limit);
+
+    @Query("SELECT c.eventId, COUNT(c) FROM ArchivedComment c WHERE c.eventId IN :eventIds GROUP BY c.eventId")
+    List<Object[]> countCommentsByEventIdIn(@Param("eventIds") List<Long> eventIds);
+}
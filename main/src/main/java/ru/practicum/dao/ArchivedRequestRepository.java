@@ -0,0 +1,11 @@
+package ru.practicum.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.model.ArchivedRequest;
+
+import java.util.List;
+
+public interface ArchivedRequestRepository extends JpaRepository<ArchivedRequest, Long> {
+
+    List<ArchivedRequest> findAllByRequesterId(Long requesterId);
+}
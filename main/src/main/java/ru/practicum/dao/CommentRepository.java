@@ -3,6 +3,7 @@ package ru.practicum.dao;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.model.Comment;
 
 import java.util.List;
@@ -12,8 +13,17 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     List<Comment> findAllByEventId(Long eventId);
 
+    @Transactional(readOnly = true)
     Long countByEventId(Long eventId);
 
+    /**
+     * Комментарии события вместе с перенесенными в comments_archive.
+     */
+    @Query(value = "SELECT (SELECT COUNT(*) FROM comments WHERE event_id = :eventId) " +
+            "+ (SELECT COUNT(*) FROM comments_archive WHERE event_id = :eventId)", nativeQuery = true)
+    long countByEventIdWithArchive(@Param("eventId") Long eventId);
+
+    @Transactional(readOnly = true)
     @Query("SELECT c.event.id, COUNT(c) FROM Comment c WHERE c.event.id IN :eventIds GROUP BY c.event.id")
     List<Object[]> countCommentsByEventIdIn(@Param("eventIds") List<Long> eventIds);
 }
\ No newline at end of file
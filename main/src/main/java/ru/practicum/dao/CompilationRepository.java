@@ -2,13 +2,16 @@ package ru.practicum.dao;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.model.Compilation;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
 
@@ -16,11 +19,10 @@ public interface CompilationRepository extends JpaRepository<Compilation, Long>
             "FROM Compilation c WHERE LOWER(TRIM(c.title)) = LOWER(TRIM(:title))")
     boolean existsCompilationByTitle(@Param("title") String title);
 
-    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
+    @Transactional(readOnly = true)
     Page<Compilation> findByPinned(Boolean pinned, Pageable pageable);
 
-    @Override
-    @EntityGraph(attributePaths = {"events", "events.category", "events.initiator"})
-    Page<Compilation> findAll(Pageable pageable);
-
+    @Transactional(readOnly = true)
+    @Query("SELECT c.id, e.id FROM Compilation c JOIN c.events e WHERE c.id IN :compilationIds")
+    List<Object[]> findEventIdsByCompilationIdIn(@Param("compilationIds") Collection<Long> compilationIds);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package ru.practicum.dao;
+
+import ru.practicum.dto.event.filter.EventFilter;
+
+public interface EventCountEstimateRepository {
+
+    /**
+     * Оценка планировщика PostgreSQL для числа строк админ поиска (EXPLAIN без выполнения).
+     */
+    long estimateAdminCount(EventFilter filter);
+}
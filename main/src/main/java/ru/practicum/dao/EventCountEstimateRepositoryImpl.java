@@ -0,0 +1,37 @@
+package ru.practicum.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.event.filter.EventFilter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Transactional(readOnly = true)
+public class EventCountEstimateRepositoryImpl implements EventCountEstimateRepository {
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+    private static final String ADMIN_COLUMNS = "initiator_id, state, category_id, event_date";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long estimateAdminCount(EventFilter filter) {
+        // с архивом планировщик переносит условия в обе ветки UNION ALL, оценка верхнего узла - их сумма
+        String from = Boolean.TRUE.equals(filter.getIncludeArchived())
+                ? "(SELECT " + ADMIN_COLUMNS + " FROM events UNION ALL SELECT " + ADMIN_COLUMNS + " FROM events_archive)"
+                : "events";
+        Map<String, Object> params = new HashMap<>();
+        String sql = "EXPLAIN SELECT 1 FROM " + from + " e WHERE TRUE" + AdminSearchSql.conditions(filter, params);
+        Query query = entityManager.createNativeQuery(sql, String.class);
+        params.forEach(query::setParameter);
+        // первая строка плана - верхний узел, его rows и есть оценка результата
+        Matcher matcher = PLAN_ROWS.matcher((String) query.getResultList().get(0));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.dao;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.model.Event;
+
+import java.util.List;
+
+public interface EventFacetRepository {
+
+    /**
+     * Строки (categoryId, paid, count) по событиям, подходящим под условие.
+     */
+    List<Object[]> countByCategoryAndPaid(Specification<Event> spec);
+}
@@ -0,0 +1,38 @@
+package ru.practicum.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.model.Event;
+
+import java.util.List;
+
+@Transactional(readOnly = true)
+public class EventFacetRepositoryImpl implements EventFacetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Object[]> countByCategoryAndPaid(Specification<Event> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Event> root = query.from(Event.class);
+        Path<Long> categoryId = root.get("category").get("id");
+        Path<Boolean> paid = root.get("paid");
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // условие полнотекстового поиска добавляет сортировку по релевантности, в группировке она не нужна
+        query.orderBy(List.of());
+        query.multiselect(categoryId, paid, cb.count(root)).groupBy(categoryId, paid);
+        return entityManager.createQuery(query).getResultList();
+    }
+}
@@ -1,57 +1,76 @@
 package ru.practicum.dao;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.model.Event;
-import ru.practicum.model.EventState;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>,
+        EventShortDtoRepository, EventFacetRepository, EventSliceRepository, EventCountEstimateRepository {
 
     boolean existsByCategoryId(Long categoryId);
 
+    @EntityGraph(attributePaths = {"category", "initiator"})
     Optional<Event> findByIdAndInitiatorId(Long eventId, Long userId);
 
+    // объявленные запросы без своей транзакции держали бы соединение до конца вызывающего метода
+    @Transactional(readOnly = true)
+    @EntityGraph(attributePaths = {"category", "initiator"})
+    Optional<Event> findWithCategoryAndInitiatorById(Long eventId);
+
     boolean existsEventByInitiatorId(Long userI);
 
-    List<Event> findByInitiatorIdOrderByEventDateDesc(Pageable pageable, Long userId);
+    @Modifying
+    @Query("UPDATE Event e SET e.views = :views WHERE e.id = :id AND e.views <> :views")
+    int updateViews(@Param("id") Long id, @Param("views") Long views);
+
+    @Query("SELECT e.id, e.category.id, e.paid, e.eventDate, e.participantLimit, e.confirmedRequests " +
+            "FROM Event e WHERE e.state = 'PUBLISHED'")
+    List<Object[]> findPublishedIndexRows();
+
+    @Query("SELECT e.id, e.title, e.eventDate, e.category.id FROM Event e " +
+            "WHERE e.state = 'PUBLISHED' AND e.eventDate > :after")
+    List<Object[]> findUpcomingCalendarRows(@Param("after") LocalDateTime after);
+
+    @Query("SELECT e.id, e.title, e.views FROM Event e WHERE e.state = 'PUBLISHED'")
+    List<Object[]> findPublishedTitleRows();
+
+    /**
+     * Подсказки из базы, пока индекс подсказок не построен или выключен: строки (id, title) событий,
+     * нормализованное название которых совпадает с регулярным выражением pattern. Нормализация
+     * повторяет индекс: нижний регистр, ё как е, всё, кроме букв и цифр, - одиночные пробелы.
+     */
+    @Query(value = "SELECT e.id, e.title FROM events e WHERE e.state = 'PUBLISHED' " +
+            "AND btrim(regexp_replace(translate(lower(e.title), 'ё', 'е'), '[^[:alnum:]]+', ' ', 'g')) ~ :pattern " +
+            "ORDER BY e.views DESC, e.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findSuggestions(@Param("pattern") String pattern, @Param("limit") int limit);
+
+    @Query("SELECT e.id, e.location.lat, e.location.lon FROM Event e " +
+            "WHERE e.state = 'PUBLISHED' AND e.location.lat IS NOT NULL AND e.location.lon IS NOT NULL")
+    List<Object[]> findPublishedLocations();
 
-    @Query("SELECT e FROM Event e " +
+    /**
+     * Кластеры опубликованных событий в рамке: строки (count, avgLat, avgLon, minId) по клеткам
+     * сетки Меркатора из cells x cells клеток. Рамка отбирается по GiST-индексу idx_events_location.
+     */
+    @Query(value = "SELECT COUNT(*), AVG(e.lat), AVG(e.lon), MIN(e.id) FROM events e " +
             "WHERE e.state = 'PUBLISHED' " +
-            "AND (:text IS NULL OR " +
-            "LOWER(e.annotation) LIKE '%' || LOWER(CAST(:text AS string)) || '%' OR " +
-            "LOWER(e.description) LIKE '%' || LOWER(CAST(:text AS string)) || '%') " +
-            "AND (COALESCE(:categories, NULL) IS NULL OR e.category.id IN :categories) " +
-            "AND (COALESCE(:paid, NULL) IS NULL OR e.paid = :paid) " +
-            "AND (COALESCE(:rangeStart, NULL) IS NULL OR e.eventDate >= :rangeStart) " +
-            "AND (COALESCE(:rangeEnd, NULL) IS NULL OR e.eventDate <= :rangeEnd) " +
-            "AND (:onlyAvailable = FALSE OR e.participantLimit = 0 OR e.participantLimit > e.confirmedRequests)")
-    Page<Event> findPublicEvents(@Param("text") String text,
-                                 @Param("categories") List<Long> categories,
-                                 @Param("paid") Boolean paid,
-                                 @Param("rangeStart") LocalDateTime rangeStart,
-                                 @Param("rangeEnd") LocalDateTime rangeEnd,
-                                 @Param("onlyAvailable") Boolean onlyAvailable,
-                                 Pageable pageable);
-
-    @Query("SELECT e FROM Event e " +
-            "WHERE (COALESCE(:users, NULL) IS NULL OR e.initiator.id IN :users) " +
-            "AND (COALESCE(:states, NULL) IS NULL OR e.state IN :states) " +
-            "AND (COALESCE(:categories, NULL) IS NULL OR e.category.id IN :categories) " +
-            "AND (COALESCE(:rangeStart, NULL) IS NULL OR e.eventDate >= :rangeStart) " +
-            "AND (COALESCE(:rangeEnd, NULL) IS NULL OR e.eventDate <= :rangeEnd)")
-    Page<Event> findAdminEvents(@Param("users") List<Long> users,
-                                @Param("states") List<EventState> states,
-                                @Param("categories") List<Long> categories,
-                                @Param("rangeStart") LocalDateTime rangeStart,
-                                @Param("rangeEnd") LocalDateTime rangeEnd,
-                                Pageable pageable);
+            "AND point(e.lon, e.lat) <@ box(point(:minLon, :minLat), point(:maxLon, :maxLat)) " +
+            "GROUP BY LEAST(FLOOR((e.lon + 180) / 360 * :cells), :cells - 1), " +
+            "LEAST(FLOOR((1 - LN(TAN(RADIANS(LEAST(GREATEST(e.lat, -85.05112878), 85.05112878))) " +
+            "+ 1 / COS(RADIANS(LEAST(GREATEST(e.lat, -85.05112878), 85.05112878)))) / PI()) / 2 * :cells), :cells - 1)",
+            nativeQuery = true)
+    List<Object[]> findClusters(@Param("minLat") double minLat, @Param("minLon") double minLon,
+                                @Param("maxLat") double maxLat, @Param("maxLon") double maxLon,
+                                @Param("cells") int cells);
 
     @Query("SELECT COUNT(e) > 0 FROM Event e " +
             "WHERE e.state = 'PUBLISHED' " +
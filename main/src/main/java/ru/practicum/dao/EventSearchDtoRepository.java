@@ -0,0 +1,22 @@
+package ru.practicum.dao;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.model.EventSearchEntry;
+
+import java.util.List;
+
+/**
+ * Чтение EventShortDto из проекции event_search одним запросом к одной таблице,
+ * комментарии и просмотры берутся из ее колонок.
+ */
+public interface EventSearchDtoRepository {
+
+    List<EventShortDto> findShortDtos(Specification<EventSearchEntry> spec, Pageable pageable);
+
+    List<EventShortDto> findShortDtos(Specification<EventSearchEntry> spec, Sort sort,
+                                      KeysetScrollPosition position, int limit);
+}
@@ -0,0 +1,74 @@
+package ru.practicum.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.model.EventSearchEntry;
+
+import java.util.Collection;
+
+/**
+ * Запись проекции event_search. Строки собираются в базе из events, categories, users и comments,
+ * поэтому изменения сущностей должны быть сброшены до вызова (flushAutomatically).
+ */
+public interface EventSearchRepository extends JpaRepository<EventSearchEntry, Long>, EventSearchDtoRepository {
+
+    String COLUMNS = "id, title, annotation, description, event_date, published_on, paid, participant_limit, " +
+            "confirmed_requests, available, views, comments, category_id, category_name, " +
+            "initiator_id, initiator_name, lat, lon";
+
+    String SELECT_PUBLISHED = "SELECT e.id, e.title, e.annotation, e.description, e.event_date, e.published_on, " +
+            "e.paid, e.participant_limit, e.confirmed_requests, " +
+            "(e.participant_limit = 0 OR e.participant_limit > e.confirmed_requests), e.views, " +
+            "(SELECT COUNT(*) FROM comments cm WHERE cm.event_id = e.id), " +
+            "e.category_id, c.name, e.initiator_id, u.name, e.lat, e.lon " +
+            "FROM events e JOIN categories c ON c.id = e.category_id JOIN users u ON u.id = e.initiator_id " +
+            "WHERE e.state = 'PUBLISHED'";
+
+    /**
+     * Вставляет или обновляет строку опубликованного события. Число комментариев считается
+     * только при вставке, дальше его ведет addComments.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO event_search (" + COLUMNS + ") " + SELECT_PUBLISHED + " AND e.id = :id " +
+            "ON CONFLICT (id) DO UPDATE SET title = EXCLUDED.title, annotation = EXCLUDED.annotation, " +
+            "description = EXCLUDED.description, event_date = EXCLUDED.event_date, " +
+            "published_on = EXCLUDED.published_on, paid = EXCLUDED.paid, " +
+            "participant_limit = EXCLUDED.participant_limit, confirmed_requests = EXCLUDED.confirmed_requests, " +
+            "available = EXCLUDED.available, views = EXCLUDED.views, category_id = EXCLUDED.category_id, " +
+            "category_name = EXCLUDED.category_name, initiator_id = EXCLUDED.initiator_id, " +
+            "initiator_name = EXCLUDED.initiator_name, lat = EXCLUDED.lat, lon = EXCLUDED.lon",
+            nativeQuery = true)
+    int upsertPublished(@Param("id") Long eventId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM event_search s WHERE s.id = :id " +
+            "AND NOT EXISTS (SELECT 1 FROM events e WHERE e.id = s.id AND e.state = 'PUBLISHED')",
+            nativeQuery = true)
+    int deleteIfNotPublished(@Param("id") Long eventId);
+
+    @Modifying
+    @Query(value = "DELETE FROM event_search WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") Collection<Long> eventIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM event_search", nativeQuery = true)
+    int deleteAllRows();
+
+    @Modifying
+    @Query(value = "INSERT INTO event_search (" + COLUMNS + ") " + SELECT_PUBLISHED, nativeQuery = true)
+    int insertAllPublished();
+
+    @Modifying
+    @Query(value = "UPDATE event_search SET comments = comments + :delta WHERE id = :id", nativeQuery = true)
+    int addComments(@Param("id") Long eventId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE event_search SET category_name = :name WHERE category_id = :categoryId", nativeQuery = true)
+    int renameCategory(@Param("categoryId") Long categoryId, @Param("name") String name);
+
+    @Modifying
+    @Query(value = "UPDATE event_search SET views = :views WHERE id = :id AND views <> :views", nativeQuery = true)
+    int updateViews(@Param("id") Long eventId, @Param("views") Long views);
+}
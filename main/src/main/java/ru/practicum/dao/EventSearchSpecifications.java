@@ -0,0 +1,77 @@
+package ru.practicum.dao;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.model.EventSearchEntry;
+import ru.practicum.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Условия публичного поиска по проекции event_search; в ней только опубликованные события,
+ * поэтому условия на статус и соединения не нужны.
+ */
+public final class EventSearchSpecifications {
+
+    private EventSearchSpecifications() {
+    }
+
+    public static Specification<EventSearchEntry> publicSearch(EventFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.isFullTextSearch()) {
+                predicates.add(cb.isTrue(cb.function("fts_match", Boolean.class,
+                        root.get("id"), cb.literal(filter.getText()))));
+            } else if (filter.getText() != null) {
+                String pattern = EventSpecifications.toLikePattern(filter.getText());
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("annotation")), pattern, '\\'),
+                        cb.like(cb.lower(root.get("description")), pattern, '\\')));
+            }
+            if (filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+                predicates.add(root.get("categoryId").in(filter.getCategories()));
+            }
+            if (filter.getPaid() != null) {
+                predicates.add(cb.equal(root.get("paid"), filter.getPaid()));
+            }
+            if (filter.getRangeStart() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), filter.getRangeStart()));
+            }
+            if (filter.getRangeEnd() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), filter.getRangeEnd()));
+            }
+            if (Boolean.TRUE.equals(filter.getOnlyAvailable())) {
+                predicates.add(cb.isTrue(root.get("available")));
+            }
+            if (filter.getRadius() != null) {
+                predicates.add(EventSpecifications.inBox(root.get("location"), cb,
+                        GeoUtils.boundingBox(filter.getLat(), filter.getLon(), filter.getRadius())));
+                predicates.add(cb.le(EventSpecifications.distanceKm(root.get("location"), cb,
+                        filter.getLat(), filter.getLon()), filter.getRadius()));
+            }
+            if (filter.hasBoundingBox()) {
+                predicates.add(EventSpecifications.inBox(root.get("location"), cb,
+                        new double[]{filter.getMinLat(), filter.getMinLon(), filter.getMaxLat(), filter.getMaxLon()}));
+            }
+            if (!Long.class.equals(query.getResultType())) {
+                if (filter.isDistanceSort()) {
+                    query.orderBy(cb.asc(EventSpecifications.distanceKm(root.get("location"), cb,
+                            filter.getLat(), filter.getLon())), cb.asc(root.get("id")));
+                } else if (filter.isFullTextSearch()) {
+                    query.orderBy(
+                            cb.desc(cb.function("fts_rank", Double.class,
+                                    root.get("id"), cb.literal(filter.getText()))),
+                            cb.asc(root.get("id")));
+                }
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<EventSearchEntry> byIds(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.dao;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.model.ArchivedEvent;
+import ru.practicum.model.Event;
+
+import java.util.List;
+
+/**
+ * Чтение событий сразу в EventShortDto: выбираются только нужные колонки,
+ * категория и инициатор присоединяются в том же запросе, сущности не создаются.
+ */
+public interface EventShortDtoRepository {
+
+    List<EventShortDto> findShortDtos(Specification<Event> spec, Pageable pageable);
+
+    List<EventShortDto> findShortDtos(Specification<Event> spec, Sort sort, KeysetScrollPosition position, int limit);
+
+    /**
+     * То же для events_archive, без сортировки и пагинации.
+     */
+    List<EventShortDto> findArchivedShortDtos(Specification<ArchivedEvent> spec);
+}
@@ -0,0 +1,93 @@
+package ru.practicum.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.model.ArchivedEvent;
+import ru.practicum.model.Category;
+import ru.practicum.model.Event;
+import ru.practicum.model.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Transactional(readOnly = true)
+public class EventShortDtoRepositoryImpl implements EventShortDtoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<EventShortDto> findShortDtos(Specification<Event> spec, Pageable pageable) {
+        TypedQuery<EventShortDto> query = entityManager.createQuery(buildQuery(Event.class, spec, pageable.getSort(), null));
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<EventShortDto> findShortDtos(Specification<Event> spec, Sort sort, KeysetScrollPosition position, int limit) {
+        return entityManager.createQuery(buildQuery(Event.class, spec, sort, position))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<EventShortDto> findArchivedShortDtos(Specification<ArchivedEvent> spec) {
+        return entityManager.createQuery(buildQuery(ArchivedEvent.class, spec, Sort.unsorted(), null))
+                .getResultList();
+    }
+
+    /**
+     * Поля ArchivedEvent называются так же, как у Event, поэтому запрос строится для обеих сущностей.
+     */
+    private <T> CriteriaQuery<EventShortDto> buildQuery(Class<T> entity, Specification<T> spec, Sort sort,
+                                                        KeysetScrollPosition position) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<EventShortDto> query = cb.createQuery(EventShortDto.class);
+        Root<T> root = query.from(entity);
+        Join<T, Category> category = root.join("category");
+        Join<T, User> initiator = root.join("initiator");
+        query.select(cb.construct(EventShortDto.class,
+                root.get("id"),
+                root.get("annotation"),
+                root.get("title"),
+                root.get("eventDate"),
+                root.get("publishedOn"),
+                root.get("paid"),
+                root.get("confirmedRequests"),
+                root.get("views"),
+                category.get("id"),
+                category.get("name"),
+                initiator.get("id"),
+                initiator.get("name")));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate specPredicate = spec.toPredicate(root, query, cb);
+        if (specPredicate != null) {
+            predicates.add(specPredicate);
+        }
+        if (position != null && !position.isInitial()) {
+            predicates.add(KeysetPredicates.after(cb, root, sort, position.getKeys()));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return query;
+    }
+}
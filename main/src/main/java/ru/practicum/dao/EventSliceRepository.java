@@ -0,0 +1,16 @@
+package ru.practicum.dao;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.model.Event;
+
+import java.util.List;
+
+/**
+ * Выборка событий по смещению без запроса общего количества: для признака следующей
+ * страницы вызывающий запрашивает на одну строку больше.
+ */
+public interface EventSliceRepository {
+
+    List<Event> findSlice(Specification<Event> spec, Pageable pageable);
+}
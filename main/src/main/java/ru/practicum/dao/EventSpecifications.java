@@ -0,0 +1,178 @@
+package ru.practicum.dao;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.model.ArchivedEvent;
+import ru.practicum.model.Event;
+import ru.practicum.model.EventState;
+import ru.practicum.model.Location;
+import ru.practicum.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Условия поиска событий, в запрос попадают только заданные в фильтре.
+ */
+public final class EventSpecifications {
+
+    private EventSpecifications() {
+    }
+
+    public static Specification<Event> publicSearch(EventFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("state"), EventState.PUBLISHED));
+            if (filter.isFullTextSearch()) {
+                predicates.add(cb.isTrue(cb.function("fts_match", Boolean.class,
+                        root.get("id"), cb.literal(filter.getText()))));
+            } else if (filter.getText() != null) {
+                String pattern = toLikePattern(filter.getText());
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("annotation")), pattern, '\\'),
+                        cb.like(cb.lower(root.get("description")), pattern, '\\')));
+            }
+            if (filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+                predicates.add(root.get("category").get("id").in(filter.getCategories()));
+            }
+            if (filter.getPaid() != null) {
+                predicates.add(cb.equal(root.get("paid"), filter.getPaid()));
+            }
+            if (filter.getRangeStart() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), filter.getRangeStart()));
+            }
+            if (filter.getRangeEnd() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), filter.getRangeEnd()));
+            }
+            if (Boolean.TRUE.equals(filter.getOnlyAvailable())) {
+                predicates.add(cb.or(
+                        cb.equal(root.get("participantLimit"), 0),
+                        cb.greaterThan(root.get("participantLimit"), root.<Integer>get("confirmedRequests"))));
+            }
+            if (filter.getRadius() != null) {
+                // рамка отбирает кандидатов по GiST-индексу, точное расстояние проверяется уже для них
+                predicates.add(inBox(root.get("location"), cb, GeoUtils.boundingBox(filter.getLat(), filter.getLon(), filter.getRadius())));
+                predicates.add(cb.le(distanceKm(root.get("location"), cb, filter.getLat(), filter.getLon()), filter.getRadius()));
+            }
+            if (filter.hasBoundingBox()) {
+                predicates.add(inBox(root.get("location"), cb,
+                        new double[]{filter.getMinLat(), filter.getMinLon(), filter.getMaxLat(), filter.getMaxLon()}));
+            }
+            if (!Long.class.equals(query.getResultType())) {
+                if (filter.isDistanceSort()) {
+                    query.orderBy(cb.asc(distanceKm(root.get("location"), cb, filter.getLat(), filter.getLon())), cb.asc(root.get("id")));
+                } else if (filter.isFullTextSearch()) {
+                    query.orderBy(
+                            cb.desc(cb.function("fts_rank", Double.class,
+                                    root.get("id"), cb.literal(filter.getText()))),
+                            cb.asc(root.get("id")));
+                }
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Event> adminSearch(EventFilter filter) {
+        return adminConditions(filter);
+    }
+
+    /**
+     * Условия админ поиска для архива: поля ArchivedEvent называются так же, как у Event.
+     */
+    public static Specification<ArchivedEvent> archivedAdminSearch(EventFilter filter) {
+        return adminConditions(filter);
+    }
+
+    private static <T> Specification<T> adminConditions(EventFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getUsers() != null && !filter.getUsers().isEmpty()) {
+                predicates.add(root.get("initiator").get("id").in(filter.getUsers()));
+            }
+            if (filter.getStates() != null && !filter.getStates().isEmpty()) {
+                predicates.add(root.get("state").in(filter.getStates()));
+            }
+            if (filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+                predicates.add(root.get("category").get("id").in(filter.getCategories()));
+            }
+            if (filter.getRangeStart() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("eventDate"), filter.getRangeStart()));
+            }
+            if (filter.getRangeEnd() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("eventDate"), filter.getRangeEnd()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    public static Specification<Event> byInitiator(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("initiator").get("id"), userId);
+    }
+
+    /**
+     * Fetch join категории и инициатора для запросов, где entity graph метода репозитория
+     * не применяется (fluent-запросы findBy). В count-запрос не добавляется.
+     */
+    public static Specification<Event> fetchCategoryAndInitiator() {
+        return fetchCategoryAndInitiatorOf();
+    }
+
+    public static Specification<ArchivedEvent> fetchArchivedCategoryAndInitiator() {
+        return fetchCategoryAndInitiatorOf();
+    }
+
+    private static <T> Specification<T> fetchCategoryAndInitiatorOf() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch("category");
+                root.fetch("initiator");
+            }
+            return null;
+        };
+    }
+
+    public static Specification<Event> byIds(Collection<Long> ids) {
+        return byIdsOf(ids);
+    }
+
+    public static Specification<ArchivedEvent> archivedByIds(Collection<Long> ids) {
+        return byIdsOf(ids);
+    }
+
+    private static <T> Specification<T> byIdsOf(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * box = {minLat, minLon, maxLat, maxLon}; при minLon > maxLon рамка пересекает 180-й меридиан
+     * и делится на две.
+     */
+    static Predicate inBox(Path<Location> location, CriteriaBuilder cb, double[] box) {
+        if (box[1] > box[3]) {
+            return cb.or(
+                    inBox(location, cb, new double[]{box[0], box[1], box[2], 180}),
+                    inBox(location, cb, new double[]{box[0], -180, box[2], box[3]}));
+        }
+        return cb.isTrue(cb.function("geo_in_box", Boolean.class,
+                location.get("lat"), location.get("lon"),
+                cb.literal(box[0]), cb.literal(box[1]), cb.literal(box[2]), cb.literal(box[3])));
+    }
+
+    static Expression<Double> distanceKm(Path<Location> location, CriteriaBuilder cb, double lat, double lon) {
+        return cb.function("geo_distance_km", Double.class,
+                location.get("lat"), location.get("lon"), cb.literal(lat), cb.literal(lon));
+    }
+
+    static String toLikePattern(String text) {
+        String escaped = text.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+}
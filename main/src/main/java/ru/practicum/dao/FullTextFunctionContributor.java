@@ -0,0 +1,70 @@
+package ru.practicum.dao;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.query.ReturnableType;
+import org.hibernate.query.sqm.function.AbstractSqmSelfRenderingFunctionDescriptor;
+import org.hibernate.query.sqm.produce.function.StandardArgumentsValidators;
+import org.hibernate.query.sqm.produce.function.StandardFunctionArgumentTypeResolvers;
+import org.hibernate.query.sqm.produce.function.StandardFunctionReturnTypeResolvers;
+import org.hibernate.sql.ast.SqlAstTranslator;
+import org.hibernate.sql.ast.spi.SqlAppender;
+import org.hibernate.sql.ast.tree.SqlAstNode;
+import org.hibernate.sql.ast.tree.expression.ColumnReference;
+import org.hibernate.sql.ast.tree.expression.Expression;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.List;
+
+/**
+ * HQL-функции полнотекстового поиска PostgreSQL по колонке search_vector таблиц events и event_search.
+ * Колонка создается в import.sql и не отображается в сущностях, чтобы ее текст не читался при каждой
+ * загрузке события. Первым аргументом передается id сущности, колонка берется из его таблицы:
+ * fts_match(e.id, :text), fts_rank(e.id, :text).
+ */
+public class FullTextFunctionContributor implements FunctionContributor {
+
+    public static final String TEXT_SEARCH_CONFIG = "russian";
+    private static final String SEARCH_VECTOR_COLUMN = "search_vector";
+
+    private static final String TSQUERY = "websearch_to_tsquery('" + TEXT_SEARCH_CONFIG + "', ";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        var registry = functionContributions.getFunctionRegistry();
+        var types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        registry.register("fts_match", new SearchVectorFunction("fts_match",
+                types.resolve(StandardBasicTypes.BOOLEAN), "(", " @@ " + TSQUERY));
+        registry.register("fts_rank", new SearchVectorFunction("fts_rank",
+                types.resolve(StandardBasicTypes.DOUBLE), "ts_rank_cd(", ", " + TSQUERY));
+    }
+
+    private static class SearchVectorFunction extends AbstractSqmSelfRenderingFunctionDescriptor {
+
+        private final String prefix;
+        private final String infix;
+
+        SearchVectorFunction(String name, BasicType<?> type, String prefix, String infix) {
+            super(name, StandardArgumentsValidators.exactly(2),
+                    StandardFunctionReturnTypeResolvers.invariant(type), StandardFunctionArgumentTypeResolvers.NULL);
+            this.prefix = prefix;
+            this.infix = infix;
+        }
+
+        @Override
+        public void render(SqlAppender sqlAppender, List<? extends SqlAstNode> arguments,
+                           ReturnableType<?> returnType, SqlAstTranslator<?> walker) {
+            ColumnReference id = ((Expression) arguments.get(0)).getColumnReference();
+            sqlAppender.appendSql(prefix);
+            if (id != null && id.getQualifier() != null) {
+                sqlAppender.appendSql(id.getQualifier());
+                sqlAppender.appendSql('.');
+            }
+            sqlAppender.appendSql(SEARCH_VECTOR_COLUMN);
+            sqlAppender.appendSql(infix);
+            arguments.get(1).accept(walker);
+            sqlAppender.appendSql("))");
+        }
+    }
+}
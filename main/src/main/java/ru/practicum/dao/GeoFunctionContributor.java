@@ -0,0 +1,30 @@
+package ru.practicum.dao;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+import ru.practicum.util.GeoUtils;
+
+/**
+ * HQL-функции поиска по координатам событий. geo_in_box использует GiST-индекс
+ * idx_events_location по выражению point(lon, lat), geo_distance_km считает расстояние
+ * по формуле гаверсинусов и применяется уже к отобранным по рамке строкам.
+ */
+public class GeoFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        var registry = functionContributions.getFunctionRegistry();
+        var types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        // geo_in_box(lat, lon, minLat, minLon, maxLat, maxLon)
+        registry.registerPattern("geo_in_box",
+                "(point(?2, ?1) <@ box(point(?4, ?3), point(?6, ?5)))",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+        // geo_distance_km(lat, lon, pointLat, pointLon)
+        registry.registerPattern("geo_distance_km",
+                "(" + GeoUtils.EARTH_RADIUS_KM + " * 2 * asin(sqrt("
+                        + "power(sin(radians(?3 - ?1) / 2), 2) + "
+                        + "cos(radians(?1)) * cos(radians(?3)) * power(sin(radians(?4 - ?2) / 2), 2))))",
+                types.resolve(StandardBasicTypes.DOUBLE));
+    }
+}
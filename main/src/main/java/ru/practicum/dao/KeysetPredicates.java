@@ -0,0 +1,37 @@
+package ru.practicum.dao;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+final class KeysetPredicates {
+
+    private KeysetPredicates() {
+    }
+
+    /**
+     * (k1 > v1) OR (k1 = v1 AND k2 > v2) ... с учетом направления каждого ключа.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Predicate after(CriteriaBuilder cb, Root<?> root, Sort sort, Map<String, Object> keys) {
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalPrefix = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            Comparable value = (Comparable) keys.get(property);
+            Predicate next = order.isAscending()
+                    ? cb.greaterThan(root.get(property), value)
+                    : cb.lessThan(root.get(property), value);
+            List<Predicate> alternative = new ArrayList<>(equalPrefix);
+            alternative.add(next);
+            alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+            equalPrefix.add(cb.equal(root.get(property), value));
+        }
+        return cb.or(alternatives.toArray(Predicate[]::new));
+    }
+}
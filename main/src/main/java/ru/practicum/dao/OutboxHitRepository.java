@@ -0,0 +1,18 @@
+package ru.practicum.dao;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.model.OutboxHit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxHitRepository extends JpaRepository<OutboxHit, Long> {
+
+    @Query(value = "SELECT * FROM stats_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxHit> lockBatch(@Param("limit") int limit);
+
+    @Query("SELECT MIN(o.created) FROM OutboxHit o")
+    LocalDateTime findOldestCreated();
+}
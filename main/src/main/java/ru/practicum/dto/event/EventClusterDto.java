@@ -0,0 +1,15 @@
+package ru.practicum.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventClusterDto {
+    private Long count;
+    private Double lat;
+    private Double lon;
+    private Long sampleEventId;
+}
@@ -0,0 +1,22 @@
+package ru.practicum.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventCountDto {
+    private Long count;
+    private Boolean approximate;
+    /**
+     * Относительная ошибка значения: 0 для точного подсчета, для оценки - наблюдаемая ошибка
+     * последних оценок (null, пока сверок не было).
+     */
+    private Double error;
+
+    public static EventCountDto exact(long count) {
+        return new EventCountDto(count, false, 0.0);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventFacetsDto {
+    private Long total;
+    private Map<Long, Long> categories;
+    private Long paid;
+    private Long free;
+}
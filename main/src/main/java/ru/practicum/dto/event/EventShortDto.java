@@ -29,4 +29,33 @@ public class EventShortDto {
     private String title;
     private Long views;
     private Long comments;
+
+    /**
+     * Конструктор для выборки проекцией, см. EventShortDtoRepository.
+     */
+    public EventShortDto(Long id, String annotation, String title, LocalDateTime eventDate, LocalDateTime publishedOn,
+                         Boolean paid, Integer confirmedRequests, Long views,
+                         Long categoryId, String categoryName, Long initiatorId, String initiatorName) {
+        this.id = id;
+        this.annotation = annotation;
+        this.title = title;
+        this.eventDate = eventDate;
+        this.publishedOn = publishedOn;
+        this.paid = paid;
+        this.confirmedRequests = confirmedRequests.longValue();
+        this.views = views;
+        this.category = new CategoryDto(categoryId, categoryName);
+        this.initiator = new UserShortDto(initiatorId, initiatorName);
+    }
+
+    /**
+     * Конструктор для выборки из проекции поиска, где число комментариев уже посчитано.
+     */
+    public EventShortDto(Long id, String annotation, String title, LocalDateTime eventDate, LocalDateTime publishedOn,
+                         Boolean paid, Integer confirmedRequests, Long views, Long comments,
+                         Long categoryId, String categoryName, Long initiatorId, String initiatorName) {
+        this(id, annotation, title, eventDate, publishedOn, paid, confirmedRequests, views,
+                categoryId, categoryName, initiatorId, initiatorName);
+        this.comments = comments;
+    }
 }
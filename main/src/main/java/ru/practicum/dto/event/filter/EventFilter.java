@@ -29,14 +29,52 @@ public class EventFilter {
     private Boolean paid;
     private Boolean onlyAvailable = false;
     private String sort;
+    private TextSearchMode textMode = TextSearchMode.SUBSTRING;
+    private String cursor;
+
+    private Double lat;
+    private Double lon;
+    /**
+     * Радиус поиска вокруг точки (lat, lon) в километрах.
+     */
+    private Double radius;
+    private Double minLat;
+    private Double minLon;
+    private Double maxLat;
+    private Double maxLon;
 
     private List<Long> users;
     private List<EventState> states;
+    /**
+     * Админ поиск: добавить к событиям из events перенесенные в архив.
+     */
+    private Boolean includeArchived = false;
 
     public boolean isPublicSearch() {
         return text != null || paid != null || sort != null || onlyAvailable != null;
     }
 
+    public boolean isFullTextSearch() {
+        return text != null && !text.isBlank()
+                && (textMode == TextSearchMode.FULL_TEXT || "RELEVANCE".equals(sort));
+    }
+
+    public boolean hasGeoPoint() {
+        return lat != null && lon != null;
+    }
+
+    public boolean hasBoundingBox() {
+        return minLat != null || minLon != null || maxLat != null || maxLon != null;
+    }
+
+    public boolean hasGeoFilter() {
+        return radius != null || hasBoundingBox();
+    }
+
+    public boolean isDistanceSort() {
+        return "DISTANCE".equals(sort);
+    }
+
     public boolean isAdminSearch() {
         return users != null || states != null;
     }
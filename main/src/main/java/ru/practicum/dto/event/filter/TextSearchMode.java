@@ -0,0 +1,7 @@
+package ru.practicum.dto.event.filter;
+
+public enum TextSearchMode {
+    SUBSTRING,
+    TRIGRAM,
+    FULL_TEXT
+}
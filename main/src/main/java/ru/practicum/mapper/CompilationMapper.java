@@ -6,10 +6,10 @@ import ru.practicum.dto.compilation.CompilationDto;
 import ru.practicum.dto.compilation.NewCompilationDto;
 import ru.practicum.model.Compilation;
 
-@Mapper(componentModel = "spring", uses = {EventMapper.class})
+@Mapper(componentModel = "spring")
 public interface CompilationMapper {
 
-    @Mapping(target = "events", source = "events")
+    @Mapping(target = "events", ignore = true)
     CompilationDto toDto(Compilation compilation);
 
     @Mapping(target = "id", ignore = true)
@@ -2,6 +2,7 @@ package ru.practicum.mapper;
 
 import org.mapstruct.*;
 import ru.practicum.dto.event.*;
+import ru.practicum.model.ArchivedEvent;
 import ru.practicum.model.Category;
 import ru.practicum.model.Event;
 import ru.practicum.model.Location;
@@ -14,8 +15,12 @@ public interface EventMapper {
 
     EventFullDto toFullDto(Event event);
 
+    EventFullDto toFullDto(ArchivedEvent event);
+
     EventShortDto toShortDto(Event event);
 
+    EventFullDto copy(EventFullDto eventFullDto);
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "confirmedRequests", constant = "0")
     @Mapping(target = "state", expression = "java(ru.practicum.model.EventState.PENDING)")
@@ -3,6 +3,7 @@ package ru.practicum.mapper;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.dto.request.ParticipationRequestDto;
+import ru.practicum.model.ArchivedRequest;
 import ru.practicum.model.Request;
 
 @Mapper(componentModel = "spring", uses = {UserMapper.class})
@@ -12,6 +13,10 @@ public interface RequestMapper {
     @Mapping(target = "event", source = "request.event.id")
     ParticipationRequestDto toDto(Request request);
 
+    @Mapping(target = "requester", source = "requesterId")
+    @Mapping(target = "event", source = "eventId")
+    ParticipationRequestDto toDto(ArchivedRequest request);
+
     @Mapping(target = "requester.id", source = "requester")
     @Mapping(target = "event.id", source = "event")
     Request toEntity(ParticipationRequestDto dto);
@@ -0,0 +1,34 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Комментарий архивного события, внешних ключей нет, как и у {@link ArchivedRequest}.
+ */
+@Entity
+@Table(name = "comments_archive", indexes = @Index(name = "idx_comments_archive_event_id", columnList = "event_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedComment {
+
+    @Id
+    private Long id;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Column(name = "author_id", nullable = false)
+    private Long authorId;
+
+    @Column(name = "description", nullable = false)
+    private String description;
+
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+}
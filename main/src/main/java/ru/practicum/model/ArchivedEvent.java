@@ -0,0 +1,76 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Прошедшее событие, перенесенное из events архивацией. Колонки повторяют events, id сохраняется.
+ */
+@Entity
+@Table(name = "events_archive", indexes = {
+        @Index(name = "idx_events_archive_initiator_event_date", columnList = "initiator_id, event_date, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class ArchivedEvent {
+
+    @Id
+    Long id;
+
+    @Column(nullable = false, length = 120)
+    String title;
+
+    @Column(nullable = false, length = 2000)
+    String annotation;
+
+    @Column(nullable = false, length = 7000)
+    String description;
+
+    @Column(name = "event_date", nullable = false)
+    LocalDateTime eventDate;
+
+    @Column(name = "created_on", nullable = false)
+    LocalDateTime createdOn;
+
+    @Column(name = "published_on")
+    LocalDateTime publishedOn;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "initiator_id", nullable = false)
+    User initiator;
+
+    @Embedded
+    Location location;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id", nullable = false)
+    Category category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    EventState state;
+
+    @Column(nullable = false)
+    Boolean paid;
+
+    @Column(name = "participant_limit", nullable = false)
+    Integer participantLimit;
+
+    @Column(name = "request_moderation", nullable = false)
+    Boolean requestModeration;
+
+    @Column(name = "confirmed_requests", nullable = false)
+    Integer confirmedRequests;
+
+    @Column(nullable = false)
+    Long views;
+
+    @Column(name = "archived_on", nullable = false)
+    LocalDateTime archivedOn;
+}
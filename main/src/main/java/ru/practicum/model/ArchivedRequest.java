@@ -0,0 +1,38 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Заявка архивного события. Внешних ключей нет: пользователь может быть удален после архивации.
+ */
+@Entity
+@Table(name = "requests_archive", indexes = {
+        @Index(name = "idx_requests_archive_event_id", columnList = "event_id"),
+        @Index(name = "idx_requests_archive_requester_id", columnList = "requester_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchivedRequest {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime created;
+
+    @Column(name = "requester_id", nullable = false)
+    private Long requesterId;
+
+    @Column(name = "event_id", nullable = false)
+    private Long eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EventRequestStatus status;
+}
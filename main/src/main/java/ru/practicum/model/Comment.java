@@ -9,7 +9,7 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = @Index(name = "idx_comments_event_id", columnList = "event_id"))
 @Getter
 @Setter
 @NoArgsConstructor
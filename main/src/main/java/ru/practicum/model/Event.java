@@ -3,11 +3,17 @@ package ru.practicum.model;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+        @Index(name = "idx_events_state_event_date", columnList = "state, event_date, id"),
+        @Index(name = "idx_events_initiator_event_date", columnList = "initiator_id, event_date, id"),
+        @Index(name = "idx_events_state_views", columnList = "state, views, id"),
+        @Index(name = "idx_events_event_date", columnList = "event_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -67,4 +73,13 @@ public class Event {
     @Column(name = "confirmed_requests", nullable = false)
     @Builder.Default
     Integer confirmedRequests = 0;
+
+    /**
+     * Пишет только синхронизация просмотров (EventRepository.updateViews): при сохранении сущности
+     * загруженное ранее значение затерло бы более новое.
+     */
+    @Column(nullable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    Long views = 0L;
 }
\ No newline at end of file
@@ -0,0 +1,77 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+import java.time.LocalDateTime;
+
+/**
+ * Строка проекции публичного поиска: опубликованное событие вместе с названием категории,
+ * именем инициатора, числом комментариев и доступностью. Заполняется EventSearchProjection.
+ */
+@Entity
+@Table(name = "event_search", indexes = {
+        @Index(name = "idx_event_search_event_date", columnList = "event_date, id"),
+        @Index(name = "idx_event_search_views", columnList = "views, id"),
+        @Index(name = "idx_event_search_category", columnList = "category_id, event_date, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventSearchEntry {
+
+    @Id
+    Long id;
+
+    @Column(nullable = false, length = 120)
+    String title;
+
+    @Column(nullable = false, length = 2000)
+    String annotation;
+
+    @Column(nullable = false, length = 7000)
+    @ToString.Exclude
+    String description;
+
+    @Column(name = "event_date", nullable = false)
+    LocalDateTime eventDate;
+
+    @Column(name = "published_on")
+    LocalDateTime publishedOn;
+
+    @Column(nullable = false)
+    Boolean paid;
+
+    @Column(name = "participant_limit", nullable = false)
+    Integer participantLimit;
+
+    @Column(name = "confirmed_requests", nullable = false)
+    Integer confirmedRequests;
+
+    @Column(nullable = false)
+    Boolean available;
+
+    @Column(nullable = false)
+    Long views;
+
+    @Column(nullable = false)
+    Long comments;
+
+    @Column(name = "category_id", nullable = false)
+    Long categoryId;
+
+    @Column(name = "category_name", nullable = false)
+    String categoryName;
+
+    @Column(name = "initiator_id", nullable = false)
+    Long initiatorId;
+
+    @Column(name = "initiator_name", nullable = false)
+    String initiatorName;
+
+    @Embedded
+    Location location;
+}
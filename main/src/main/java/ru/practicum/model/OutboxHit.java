@@ -0,0 +1,45 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stats_outbox")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxHit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "app", nullable = false, length = 32)
+    private String app;
+
+    @Column(name = "uri", nullable = false, length = 128)
+    private String uri;
+
+    @Column(name = "ip", nullable = false, length = 16)
+    private String ip;
+
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp;
+
+    @Column(name = "weight", nullable = false)
+    private Integer weight;
+
+    @Column(name = "dedup_key", nullable = false, length = 64)
+    private String dedupKey;
+
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+}
@@ -0,0 +1,18 @@
+package ru.practicum.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Дополнительные чтения из базы для ответа (счетчики комментариев) в виртуальных потоках,
+ * параллельно с запросом к статистике.
+ */
+public interface AsyncQueryService {
+
+    /**
+     * Выполняет чтение в отдельной read-only транзакции, одновременно идет не больше ewm.async-query.max-concurrent
+     * чтений. При ошибке или если чтение вместе с ожиданием места идет дольше stats-server.deadline,
+     * результатом становится fallback.
+     */
+    <T> CompletableFuture<T> query(Supplier<T> query, T fallback);
+}
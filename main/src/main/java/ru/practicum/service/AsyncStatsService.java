@@ -0,0 +1,25 @@
+package ru.practicum.service;
+
+import ru.practicum.EndpointHitDto;
+import ru.practicum.client.StatsClient;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Обращения к статистике в виртуальных потоках, параллельно с запросами к базе.
+ */
+public interface AsyncStatsService {
+
+    /**
+     * Выполняет запрос к статистике. Одновременно идет не больше stats-server.max-concurrent-calls
+     * обращений. При ошибке или если ответа нет дольше stats-server.deadline, включая ожидание
+     * свободного места, результатом становится fallback, и просмотры показываются нулевыми.
+     */
+    <T> CompletableFuture<T> request(Function<StatsClient, T> call, T fallback);
+
+    /**
+     * Отправляет просмотр, не дожидаясь ответа статистики. При занятом лимите обращений просмотр не записывается.
+     */
+    void saveHit(EndpointHitDto hit);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.service;
+
+/**
+ * Категория изменена (например, переименована), обрабатывается после коммита транзакции.
+ */
+public record CategoryChangedEvent(Long id) {
+}
@@ -0,0 +1,10 @@
+package ru.practicum.service;
+
+public interface EventArchiveService {
+
+    /**
+     * Переносит прошедшие события с заявками и комментариями из events в архивные таблицы
+     * пачками по batch-size, каждая пачка - в своей транзакции.
+     */
+    void archive();
+}
@@ -0,0 +1,20 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.event.CalendarDayDto;
+import ru.practicum.dto.event.filter.EventFilter;
+
+import java.util.List;
+
+/**
+ * Календарь предстоящих опубликованных событий по дням.
+ */
+public interface EventCalendarService {
+
+    /**
+     * Первые filter.size событий между rangeStart (не раньше текущего момента) и rangeEnd
+     * в порядке даты, сгруппированные по дням; учитываются только категории фильтра.
+     */
+    List<CalendarDayDto> getCalendar(EventFilter filter);
+
+    void onEventChanged(EventChangedEvent event);
+}
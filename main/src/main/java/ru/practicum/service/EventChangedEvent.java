@@ -0,0 +1,58 @@
+package ru.practicum.service;
+
+import ru.practicum.model.Event;
+import ru.practicum.model.EventState;
+
+import java.time.LocalDateTime;
+
+/**
+ * Снимок события после изменения. Публикуется сервисами при сохранении события
+ * и обрабатывается после коммита транзакции.
+ */
+public record EventChangedEvent(Long id,
+                                EventState state,
+                                Long categoryId,
+                                Long previousCategoryId,
+                                boolean paid,
+                                LocalDateTime eventDate,
+                                int participantLimit,
+                                int confirmedRequests,
+                                Float lat,
+                                Float lon,
+                                String title,
+                                long views) {
+
+    public static EventChangedEvent of(Event event) {
+        return of(event, event.getCategory().getId());
+    }
+
+    /**
+     * @param previousCategoryId категория события до изменения, чтобы обновить и те выборки, из которых оно ушло
+     */
+    public static EventChangedEvent of(Event event, Long previousCategoryId) {
+        return new EventChangedEvent(event.getId(),
+                event.getState(),
+                event.getCategory().getId(),
+                previousCategoryId,
+                Boolean.TRUE.equals(event.getPaid()),
+                event.getEventDate(),
+                event.getParticipantLimit(),
+                event.getConfirmedRequests(),
+                event.getLocation() == null ? null : event.getLocation().getLat(),
+                event.getLocation() == null ? null : event.getLocation().getLon(),
+                event.getTitle(),
+                event.getViews() == null ? 0 : event.getViews());
+    }
+
+    /**
+     * Событие удалено из events (перенесено в архив): без состояния подписчики убирают его,
+     * как неопубликованное.
+     */
+    public static EventChangedEvent removed(Long id) {
+        return new EventChangedEvent(id, null, null, null, false, null, 0, 0, null, null, null, 0);
+    }
+
+    public boolean isAvailable() {
+        return participantLimit == 0 || participantLimit > confirmedRequests;
+    }
+}
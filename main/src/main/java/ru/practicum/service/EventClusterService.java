@@ -0,0 +1,12 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.event.EventClusterDto;
+
+import java.util.List;
+
+public interface EventClusterService {
+
+    List<EventClusterDto> getClusters(double minLat, double minLon, double maxLat, double maxLon, int zoom);
+
+    void onEventChanged(EventChangedEvent event);
+}
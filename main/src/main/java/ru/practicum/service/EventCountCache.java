@@ -0,0 +1,14 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.event.filter.EventFilter;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Кэш общего количества событий по фильтру поиска. Пагинация в ключ не входит;
+ * записи живут ограниченное время и при изменениях событий не сбрасываются.
+ */
+public interface EventCountCache {
+
+    long get(boolean admin, EventFilter filter, ToLongFunction<EventFilter> count);
+}
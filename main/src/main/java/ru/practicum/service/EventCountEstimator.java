@@ -0,0 +1,18 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.event.EventCountDto;
+import ru.practicum.dto.event.filter.EventFilter;
+
+/**
+ * Приблизительное количество событий админ поиска по оценке планировщика без COUNT(*).
+ * Если оценка не больше порога, количество считается точно.
+ */
+public interface EventCountEstimator {
+
+    EventCountDto estimateAdmin(EventFilter filter);
+
+    /**
+     * Точное количество через кэш количеств; с includeArchived - вместе с архивом.
+     */
+    long countAdmin(EventFilter filter);
+}
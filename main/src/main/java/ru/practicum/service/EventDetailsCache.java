@@ -0,0 +1,28 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.event.EventFullDto;
+
+import java.util.Optional;
+
+/**
+ * Кэш неизменяемой части EventFullDto опубликованных событий, без просмотров и комментариев.
+ */
+public interface EventDetailsCache {
+
+    Optional<EventFullDto> get(Long eventId);
+
+    /**
+     * Метка для put: берется до чтения события из базы.
+     */
+    long startLoad();
+
+    /**
+     * Кладет событие, только если с момента startLoad не было инвалидаций,
+     * иначе прочитанные до изменения данные могли бы остаться в кэше.
+     */
+    void put(EventFullDto eventFullDto, long loadToken);
+
+    void onEventChanged(EventChangedEvent event);
+
+    void onCategoryChanged(CategoryChangedEvent event);
+}
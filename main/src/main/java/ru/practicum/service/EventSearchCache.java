@@ -0,0 +1,25 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.dto.page.CursorPage;
+
+import java.util.function.Function;
+
+/**
+ * Кэш страниц публичного поиска по нормализованному фильтру. Устаревшая страница
+ * отдается сразу и обновляется в фоне.
+ */
+public interface EventSearchCache {
+
+    /**
+     * Возвращает страницу из кэша или выполняет search. Запросы с курсором и гео-условиями
+     * не кэшируются. В search передается нормализованный фильтр, поэтому результат
+     * одинаков для всех фильтров с тем же ключом.
+     */
+    CursorPage<EventShortDto> get(EventFilter filter, Function<EventFilter, CursorPage<EventShortDto>> search);
+
+    void onEventChanged(EventChangedEvent event);
+
+    void onCategoryChanged(CategoryChangedEvent event);
+}
@@ -0,0 +1,30 @@
+package ru.practicum.service;
+
+import java.util.Collection;
+
+/**
+ * Проекция публичного поиска event_search. Методы записи вызываются в транзакции
+ * изменяющего сервиса, поэтому проекция меняется вместе с исходными таблицами.
+ * При выключенной проекции методы ничего не делают.
+ */
+public interface EventSearchProjection {
+
+    boolean isEnabled();
+
+    /**
+     * Приводит строку события к текущему состоянию: опубликованное вставляется или обновляется,
+     * остальные удаляются.
+     */
+    void refreshEvent(Long eventId);
+
+    /**
+     * Убирает строки событий, удаленных из events.
+     */
+    void removeEvents(Collection<Long> eventIds);
+
+    void addComments(Long eventId, long delta);
+
+    void renameCategory(Long categoryId, String name);
+
+    void updateViews(Long eventId, Long views);
+}
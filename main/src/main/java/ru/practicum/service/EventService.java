@@ -3,8 +3,7 @@ package ru.practicum.service;
 import jakarta.servlet.http.HttpServletRequest;
 import ru.practicum.dto.event.filter.EventFilter;
 import ru.practicum.dto.event.*;
-
-import java.util.List;
+import ru.practicum.dto.page.CursorPage;
 
 public interface EventService {
 
@@ -12,15 +11,26 @@ public interface EventService {
 
     EventFullDto getUserEventByUserIdAndEventId(Long userId, Long eventId);
 
-    List<EventShortDto> getUserEvents(Long userId, Integer from, Integer size);
+    CursorPage<EventShortDto> getUserEvents(Long userId, Integer from, Integer size, String cursor);
 
     EventFullDto userUpdateEvent(Long userId, Long eventId, UpdateEventUserRequestDto dto);
 
-    List<EventFullDto> searchAdmin(EventFilter filter);
+    CursorPage<EventFullDto> searchAdmin(EventFilter filter);
+
+    /**
+     * Общее количество событий админ поиска; пагинация фильтра не учитывается,
+     * значение кэшируется на короткое время. При approximate большие результаты
+     * оцениваются планировщиком без подсчета.
+     */
+    EventCountDto countAdmin(EventFilter filter, boolean approximate);
 
     EventFullDto adminEditEvent(Long eventId, UpdateEventAdminRequestDto dto);
 
-    List<EventShortDto> searchPublic(EventFilter filter, HttpServletRequest request);
+    CursorPage<EventShortDto> searchPublic(EventFilter filter, HttpServletRequest request);
+
+    EventFacetsDto getFacets(EventFilter filter);
+
+    EventCountDto countPublic(EventFilter filter);
 
     EventFullDto getEventById(Long eventId, HttpServletRequest request);
 }
@@ -0,0 +1,19 @@
+package ru.practicum.service;
+
+import ru.practicum.dto.event.EventSuggestionDto;
+
+import java.util.List;
+
+/**
+ * Подсказки по названиям опубликованных событий для поиска по мере ввода.
+ */
+public interface EventSuggestService {
+
+    /**
+     * Самые просматриваемые события, в названии которых с одного из первых слов начинается prefix
+     * (регистр, ё/е и знаки между словами не различаются).
+     */
+    List<EventSuggestionDto> suggest(String prefix, int limit);
+
+    void onEventChanged(EventChangedEvent event);
+}
@@ -0,0 +1,7 @@
+package ru.practicum.service;
+
+public interface EventViewsSyncService {
+    boolean isEnabled();
+
+    void sync();
+}
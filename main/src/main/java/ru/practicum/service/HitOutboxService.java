@@ -0,0 +1,9 @@
+package ru.practicum.service;
+
+import ru.practicum.EndpointHitDto;
+
+public interface HitOutboxService {
+    void record(EndpointHitDto hit);
+
+    void relay();
+}
@@ -0,0 +1,24 @@
+package ru.practicum.service;
+
+import org.springframework.data.domain.Sort;
+import ru.practicum.dto.event.EventFacetsDto;
+import ru.practicum.dto.event.filter.EventFilter;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface PublishedEventIndex {
+
+    Sort BY_ID = Sort.by("id");
+    Sort BY_EVENT_DATE = Sort.by("eventDate", "id");
+
+    /**
+     * Идентификаторы страницы публичного поиска или пусто, если индекс выключен,
+     * еще не построен или фильтр ему не по силам (текст, другая сортировка).
+     */
+    Optional<List<Long>> findIds(EventFilter filter, Sort sort, long offset, int limit);
+
+    Optional<EventFacetsDto> facets(EventFilter filter);
+
+    void onEventChanged(EventChangedEvent event);
+}
@@ -1,5 +1,6 @@
 package ru.practicum.service;
 
+import ru.practicum.dto.page.CursorPage;
 import ru.practicum.dto.user.RequestUserDto;
 import ru.practicum.dto.user.UserDto;
 
@@ -11,5 +12,5 @@ public interface UserService {
 
     void deleteUser(Long userId);
 
-    List<UserDto> getUsers(List<Long> ids, Integer from, Integer size);
+    CursorPage<UserDto> getUsers(List<Long> ids, Integer from, Integer size, String cursor);
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package ru.practicum.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.service.AsyncQueryService;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class AsyncQueryServiceImpl implements AsyncQueryService {
+
+    private final TransactionTemplate transactionTemplate;
+    private final DeadlineExecutor executor;
+
+    public AsyncQueryServiceImpl(PlatformTransactionManager transactionManager,
+                                 @Value("${stats-server.deadline:1s}") Duration deadline,
+                                 @Value("${ewm.async-query.max-concurrent:10}") int maxConcurrent) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // таймаут транзакции отменяет запрос в базе, а не только перестает его ждать
+        this.transactionTemplate.setTimeout((int) Math.max(1, (deadline.toMillis() + 999) / 1000));
+        this.executor = new DeadlineExecutor("db-query-", deadline, maxConcurrent);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> query(Supplier<T> query, T fallback) {
+        return executor.submit(() -> transactionTemplate.execute(status -> query.get()))
+                .exceptionally(e -> {
+                    if (e instanceof TimeoutException) {
+                        log.warn("Чтение из базы не уложилось в {} мс", executor.getDeadlineMs());
+                    } else {
+                        log.warn("Ошибка при чтении из базы: {}", e.getMessage());
+                    }
+                    return fallback;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
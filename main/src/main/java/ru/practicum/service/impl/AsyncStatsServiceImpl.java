@@ -0,0 +1,65 @@
+package ru.practicum.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.client.StatsClient;
+import ru.practicum.service.AsyncStatsService;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+@Service
+@Slf4j
+public class AsyncStatsServiceImpl implements AsyncStatsService {
+
+    private final StatsClient statsClient;
+    private final DeadlineExecutor executor;
+    private final DeadlineExecutor hitExecutor;
+
+    public AsyncStatsServiceImpl(StatsClient statsClient,
+                                 @Value("${stats-server.deadline:1s}") Duration deadline,
+                                 @Value("${stats-server.max-concurrent-calls:64}") int maxConcurrentCalls) {
+        this.statsClient = statsClient;
+        this.executor = new DeadlineExecutor("stats-call-", deadline, maxConcurrentCalls);
+        this.hitExecutor = new DeadlineExecutor("stats-hit-", deadline, maxConcurrentCalls);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> request(Function<StatsClient, T> call, T fallback) {
+        return executor.submit(() -> call.apply(statsClient))
+                .exceptionally(e -> {
+                    if (e instanceof TimeoutException) {
+                        log.warn("Сервис статистики не ответил за {} мс", executor.getDeadlineMs());
+                    } else {
+                        log.warn("Ошибка при получении данных из сервиса статистики: {}", e.getMessage());
+                    }
+                    return fallback;
+                });
+    }
+
+    @Override
+    public void saveHit(EndpointHitDto hit) {
+        boolean accepted = hitExecutor.execute(() -> {
+            try {
+                statsClient.saveHit(hit);
+            } catch (Exception e) {
+                log.warn("Не удалось записать статистику: {}", e.getMessage());
+            }
+        });
+        if (!accepted) {
+            log.warn("Статистика не записана, запросов к статистике слишком много или приложение останавливается: {}",
+                    hit.getUri());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        hitExecutor.shutdown();
+    }
+}
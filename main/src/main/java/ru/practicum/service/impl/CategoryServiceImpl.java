@@ -1,5 +1,6 @@
 package ru.practicum.service.impl;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -7,6 +8,7 @@ import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dao.ArchivedEventRepository;
 import ru.practicum.dao.CategoryRepository;
 import ru.practicum.dao.EventRepository;
 import ru.practicum.dto.category.CategoryDto;
@@ -16,7 +18,9 @@ import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.CategoryMapper;
 import ru.practicum.exception.AlreadyExistsException;
 import ru.practicum.model.Category;
+import ru.practicum.service.CategoryChangedEvent;
 import ru.practicum.service.CategoryService;
+import ru.practicum.service.EventSearchProjection;
 
 import java.util.List;
 
@@ -29,6 +33,9 @@ public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
     private final CategoryMapper categoryMapper;
     private final EventRepository eventRepository;
+    private final ArchivedEventRepository archivedEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventSearchProjection eventSearchProjection;
 
     @Transactional
     @Override
@@ -47,7 +54,7 @@ public class CategoryServiceImpl implements CategoryService {
     public void deleteCategory(Long categoryId) {
         log.info("Удаление категории с ID {}", categoryId);
         categoryRepository.findById(categoryId).orElseThrow(() -> new NotFoundException("Category", "Id", categoryId));
-        if (eventRepository.existsByCategoryId(categoryId)) {
+        if (eventRepository.existsByCategoryId(categoryId) || archivedEventRepository.existsByCategoryId(categoryId)) {
             throw new ConflictException("Нельзя удалять связанные сущности");
         }
         categoryRepository.deleteById(categoryId);
@@ -61,6 +68,8 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(categoryId).orElseThrow(() -> new NotFoundException("Category", "Id", categoryId));
         category.setName(requestCategoryDto.getName());
         category = categoryRepository.save(category);
+        eventSearchProjection.renameCategory(categoryId, category.getName());
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId));
         log.debug("Категория с ID {} обновлена, новое имя {}", categoryId, category.getName());
         return categoryMapper.toDto(category);
     }
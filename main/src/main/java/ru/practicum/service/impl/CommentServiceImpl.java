@@ -16,6 +16,7 @@ import ru.practicum.model.Comment;
 import ru.practicum.model.Event;
 import ru.practicum.model.User;
 import ru.practicum.service.CommentService;
+import ru.practicum.service.EventSearchProjection;
 
 
 import java.util.List;
@@ -30,6 +31,7 @@ public class CommentServiceImpl implements CommentService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final CommentMapper commentMapper;
+    private final EventSearchProjection eventSearchProjection;
 
 
     @Override
@@ -43,6 +45,7 @@ public class CommentServiceImpl implements CommentService {
         }
         Comment comment = commentMapper.toEntity(requestCommentDto, author, event);
         commentRepository.save(comment);
+        eventSearchProjection.addComments(eventId, 1);
         log.debug("Комментарий добавлен {}", comment);
         return commentMapper.toDto(comment);
     }
@@ -83,6 +86,7 @@ public class CommentServiceImpl implements CommentService {
             throw new ConflictException("У данного комментария другой автор");
         }
         commentRepository.deleteById(commentId);
+        eventSearchProjection.addComments(comment.getEvent().getId(), -1);
         log.debug("Комментарий удален, id {}", commentId);
     }
 
@@ -101,7 +105,10 @@ public class CommentServiceImpl implements CommentService {
     @Transactional
     public void deleteCommentByAdmin(Long commentId) {
         log.info("Удаление коммента с id: {}, Админом", commentId);
-        commentRepository.deleteById(commentId);
+        commentRepository.findById(commentId).ifPresent(comment -> {
+            commentRepository.delete(comment);
+            eventSearchProjection.addComments(comment.getEvent().getId(), -1);
+        });
         log.debug("Комментарий удален");
     }
 }
\ No newline at end of file
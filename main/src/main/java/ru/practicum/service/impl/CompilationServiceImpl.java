@@ -5,11 +5,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.ViewStatsDto;
-import ru.practicum.client.StatsClient;
 import ru.practicum.dao.CommentRepository;
 import ru.practicum.dao.EventRepository;
+import ru.practicum.dao.EventSpecifications;
 import ru.practicum.dto.compilation.CompilationDto;
 import ru.practicum.dto.compilation.NewCompilationDto;
 import ru.practicum.dto.compilation.UpdateCompilationRequestDto;
@@ -20,11 +20,15 @@ import ru.practicum.mapper.CompilationMapper;
 import ru.practicum.model.Compilation;
 import ru.practicum.model.Event;
 import ru.practicum.dao.CompilationRepository;
+import ru.practicum.service.AsyncQueryService;
+import ru.practicum.service.AsyncStatsService;
 import ru.practicum.service.CompilationService;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,7 +43,8 @@ public class CompilationServiceImpl implements CompilationService {
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
-    private final StatsClient statsClient;
+    private final AsyncStatsService asyncStatsService;
+    private final AsyncQueryService asyncQueryService;
     private final CommentRepository commentRepository;
 
 
@@ -60,6 +65,7 @@ public class CompilationServiceImpl implements CompilationService {
         compilation = compilationRepository.save(compilation);
         log.debug("Подборка успешно создана");
         CompilationDto result = compilationMapper.toDto(compilation);
+        result.setEvents(loadEventDtos(compilation.getEvents().stream().map(Event::getId).toList()));
         return addStatsAndComments(result);
     }
 
@@ -92,11 +98,13 @@ public class CompilationServiceImpl implements CompilationService {
         }
         Compilation updatedCompilation = compilationRepository.save(compilation);
         CompilationDto result = compilationMapper.toDto(updatedCompilation);
+        result.setEvents(loadEventDtos(updatedCompilation.getEvents().stream().map(Event::getId).toList()));
         log.info("Подборка успешно обновлена");
         return addStatsAndComments(result);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<CompilationDto> getCompilations(Boolean pinned, Integer from, Integer size) {
         log.info("Попытка получения подборок с параметрами: pinned={}, from={}, size={}", pinned, from, size);
         Pageable pageable = PageRequest.of(from / size, size);
@@ -107,28 +115,22 @@ public class CompilationServiceImpl implements CompilationService {
             compilations = compilationRepository.findAll(pageable).getContent();
         }
 
-        List<Long> eventIdsFromAllCompilations = compilations.stream()
-                .map(Compilation::getEvents)
-                .flatMap(Set::stream)
-                .map(Event::getId)
+        Map<Long, List<Long>> eventIdsByCompilation = getEventIdsByCompilation(compilations);
+        List<Long> eventIdsFromAllCompilations = eventIdsByCompilation.values().stream()
+                .flatMap(List::stream)
                 .distinct()
                 .toList();
+        List<String> allUris = eventIdsFromAllCompilations.stream()
+                .map(id -> "/events/" + id)
+                .collect(Collectors.toList());
+        // статистика запрашивается параллельно с загрузкой событий
+        CompletableFuture<Map<String, Long>> views = getViewsFromStats(allUris);
+        Map<Long, EventShortDto> eventsById = loadEventDtos(eventIdsFromAllCompilations).stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
 
         Map<Long, Long> eventViewsMap = new HashMap<>();
         if (!eventIdsFromAllCompilations.isEmpty()) {
-            List<String> allUris = eventIdsFromAllCompilations.stream()
-                    .map(id -> "/events/" + id)
-                    .collect(Collectors.toList());
-
-            LocalDateTime earliestPublishedDate = compilations.stream()
-                    .map(Compilation::getEvents)
-                    .flatMap(Set::stream)
-                    .map(Event::getPublishedOn)
-                    .filter(Objects::nonNull)
-                    .min(LocalDateTime::compareTo)
-                    .orElse(null);
-
-            Map<String, Long> viewsFromStats = getViewsFromStats(allUris, earliestPublishedDate);
+            Map<String, Long> viewsFromStats = views.join();
 
             for (Long eventId : eventIdsFromAllCompilations) {
                 String uri = "/events/" + eventId;
@@ -137,7 +139,14 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         List<CompilationDto> result = compilations.stream()
-                .map(compilationMapper::toDto)
+                .map(compilation -> {
+                    CompilationDto compilationDto = compilationMapper.toDto(compilation);
+                    compilationDto.setEvents(eventIdsByCompilation.getOrDefault(compilation.getId(), List.of()).stream()
+                            .map(eventsById::get)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toSet()));
+                    return compilationDto;
+                })
                 .map(compilationDto -> setViewsToEvents(compilationDto, eventViewsMap)) // Используем новый метод
                 .collect(Collectors.toList());
 
@@ -159,11 +168,12 @@ public class CompilationServiceImpl implements CompilationService {
             List<Long> eventIds = compilationDto.getEvents().stream()
                     .map(EventShortDto::getId)
                     .collect(Collectors.toList());
-            Map<Long, Long> commentsByEventId = getCommentsByEventIds(eventIds);
-            Map<String, Long> viewsMap = new HashMap<>();
-            if (earliestPublishedDate != null) {
-                viewsMap = getViewsFromStats(uris, earliestPublishedDate);
-            }
+            CompletableFuture<Map<String, Long>> views = earliestPublishedDate != null
+                    ? getViewsFromStats(uris)
+                    : CompletableFuture.completedFuture(Map.of());
+            CompletableFuture<Map<Long, Long>> comments = getCommentsByEventIds(eventIds);
+            Map<String, Long> viewsMap = views.join();
+            Map<Long, Long> commentsByEventId = comments.join();
             for (EventShortDto eventDto : compilationDto.getEvents()) {
                 String eventUri = "/events/" + eventDto.getId();
                 eventDto.setViews(viewsMap.getOrDefault(eventUri, 0L));
@@ -174,37 +184,46 @@ public class CompilationServiceImpl implements CompilationService {
         return compilationDto;
     }
 
-    private Map<String, Long> getViewsFromStats(List<String> uris, LocalDateTime start) {
-        try {
-            LocalDateTime end = LocalDateTime.now();
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-            List<ViewStatsDto> stats = statsClient.getStats(
-                    start.format(formatter),
-                    end.format(formatter),
-                    uris,
-                    false
-            );
-            Map<String, Long> viewsMap = new HashMap<>();
-            for (ViewStatsDto stat : stats) {
-                viewsMap.put(stat.getUri(), stat.getHits());
-            }
-            return viewsMap;
-        } catch (Exception e) {
-            log.warn("Ошибка при получении данных из сервиса статистики: {}", e.getMessage());
-            return new HashMap<>();
+    private CompletableFuture<Map<String, Long>> getViewsFromStats(List<String> uris) {
+        if (uris.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
         }
+        return asyncStatsService.request(client -> client.getTotalHits(uris), Map.of());
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CompilationDto getCompilationById(Long compId) {
         log.info("Поиск подборки с id={}", compId);
         Compilation compilation = compilationRepository.findById(compId)
                 .orElseThrow(() -> new NotFoundException("Compilation", "Id", compId));
         CompilationDto result = compilationMapper.toDto(compilation);
+        result.setEvents(loadEventDtos(getEventIdsByCompilation(List.of(compilation))
+                .getOrDefault(compId, List.of())));
         log.info("Подборка найдена");
         return addStatsAndComments(result);
     }
 
+    private Map<Long, List<Long>> getEventIdsByCompilation(List<Compilation> compilations) {
+        if (compilations.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Long> compilationIds = compilations.stream()
+                .map(Compilation::getId)
+                .toList();
+        return compilationRepository.findEventIdsByCompilationIdIn(compilationIds).stream()
+                .collect(Collectors.groupingBy(
+                        row -> (Long) row[0],
+                        Collectors.mapping(row -> (Long) row[1], Collectors.toList())));
+    }
+
+    private Set<EventShortDto> loadEventDtos(List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(eventRepository.findShortDtos(EventSpecifications.byIds(eventIds), Pageable.unpaged()));
+    }
+
     private Set<Event> loadEvents(List<Long> eventIds) {
         List<Event> events = eventRepository.findAllById(eventIds);
         if (events.size() != eventIds.size()) {
@@ -236,17 +255,14 @@ public class CompilationServiceImpl implements CompilationService {
         return compilationDto;
     }
 
-    private Map<Long, Long> getCommentsByEventIds(List<Long> eventIds) {
+    private CompletableFuture<Map<Long, Long>> getCommentsByEventIds(List<Long> eventIds) {
         if (eventIds.isEmpty()) {
-            return Collections.emptyMap();
+            return CompletableFuture.completedFuture(Collections.emptyMap());
         }
-
-        List<Object[]> results = commentRepository.countCommentsByEventIdIn(eventIds);
-
-        return results.stream()
+        return asyncQueryService.query(() -> commentRepository.countCommentsByEventIdIn(eventIds).stream()
                 .collect(Collectors.toMap(
                         result -> (Long) result[0],
                         result -> (Long) result[1]
-                ));
+                )), Map.of());
     }
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package ru.practicum.service.impl;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Шаги запроса в виртуальных потоках: одновременно выполняется не больше maxConcurrent задач.
+ * Задача ждет свободного места не дольше срока, поэтому ожидающие потоки живут не дольше срока.
+ * Место освобождается, когда задача действительно закончилась, а не по сроку: зависшие вызовы
+ * занимают лимит, а не копятся без границы.
+ */
+class DeadlineExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final long deadlineMs;
+
+    DeadlineExecutor(String threadPrefix, Duration deadline, int maxConcurrent) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadPrefix, 0).factory());
+        this.permits = new Semaphore(maxConcurrent);
+        this.deadlineMs = deadline.toMillis();
+    }
+
+    long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    /**
+     * Результат завершается TimeoutException, если задача не закончилась за срок, включая ожидание места.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (!acquire()) {
+                    return;
+                }
+                try {
+                    if (!result.isDone()) {
+                        result.complete(task.get());
+                    }
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return result.orTimeout(deadlineMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Задача без результата и срока, места она не ждет.
+     *
+     * @return false, если лимит занят или исполнитель остановлен
+     */
+    boolean execute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return false;
+        }
+    }
+
+    private boolean acquire() {
+        try {
+            return permits.tryAcquire(deadlineMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dao.ArchivedEventRepository;
+import ru.practicum.service.EventArchiveService;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.EventSearchProjection;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * События, прошедшие больше min-age назад, уходят из events в events_archive, их заявки - в
+ * requests_archive, комментарии - в comments_archive. Публичный поиск и индексы в памяти работают
+ * только с events. Архив читают карточка опубликованного события, события инициатора, заявки
+ * пользователя и админ поиск с includeArchived=true.
+ */
+@Service
+@Slf4j
+public class EventArchiveServiceImpl implements EventArchiveService {
+
+    private final ArchivedEventRepository archivedEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EventSearchProjection eventSearchProjection;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration minAge;
+    private final int batchSize;
+
+    public EventArchiveServiceImpl(ArchivedEventRepository archivedEventRepository,
+                                   TransactionTemplate transactionTemplate,
+                                   EventSearchProjection eventSearchProjection,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${ewm.event-archive.enabled:false}") boolean enabled,
+                                   @Value("${ewm.event-archive.min-age:30d}") Duration minAge,
+                                   @Value("${ewm.event-archive.batch-size:500}") int batchSize) {
+        this.archivedEventRepository = archivedEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventSearchProjection = eventSearchProjection;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ewm.event-archive.interval-ms:3600000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        LocalDateTime before = LocalDateTime.now().minus(minAge);
+        int archived = 0;
+        try {
+            int moved;
+            do {
+                moved = archiveBatch(before);
+                archived += moved;
+            } while (moved == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось перенести события в архив: {}", e.getMessage());
+        }
+        if (archived > 0) {
+            log.info("В архив перенесено событий: {} за {} мс", archived, System.currentTimeMillis() - started);
+        }
+    }
+
+    private int archiveBatch(LocalDateTime before) {
+        List<Long> moved = transactionTemplate.execute(status -> {
+            List<Long> ids = archivedEventRepository.archiveBatch(before, batchSize);
+            eventSearchProjection.removeEvents(ids);
+            // индексы и кэши в памяти узнают об удалении после коммита пачки
+            ids.forEach(id -> eventPublisher.publishEvent(EventChangedEvent.removed(id)));
+            return ids;
+        });
+        return moved == null ? 0 : moved.size();
+    }
+}
@@ -0,0 +1,278 @@
+package ru.practicum.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.dao.EventRepository;
+import ru.practicum.dao.EventSpecifications;
+import ru.practicum.dto.event.CalendarDayDto;
+import ru.practicum.dto.event.CalendarEventDto;
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.exception.BadRequestException;
+import ru.practicum.model.EventState;
+import ru.practicum.service.EventCalendarService;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.PublishedEventIndex;
+import ru.practicum.util.OffsetPageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Будущие опубликованные события в корзинах по дням даты события: общих и отдельных для каждой
+ * категории. Пустых дней в индексе нет, поэтому запрос перебирает только дни с событиями
+ * и останавливается на size-м событии, с фильтром по категориям - на size-м в каждой из них.
+ * Прошедшие события удаляются раз в expire-interval-ms, до этого их отсекает сам запрос.
+ */
+@Service
+@Slf4j
+public class EventCalendarServiceImpl implements EventCalendarService {
+
+    private static final Comparator<Entry> BY_EVENT_DATE = Comparator.comparing(Entry::eventDate)
+            .thenComparing(Entry::id);
+
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final int maxSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final TreeMap<LocalDate, TreeSet<Entry>> days = new TreeMap<>();
+    private final Map<Long, TreeMap<LocalDate, TreeSet<Entry>>> categoryDays = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private Set<Long> changedDuringBuild;
+
+    private volatile boolean ready;
+
+    public EventCalendarServiceImpl(EventRepository eventRepository,
+                                    @Value("${ewm.event-calendar.enabled:false}") boolean enabled,
+                                    @Value("${ewm.event-calendar.max-size:1000}") int maxSize) {
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Object[]> rows = eventRepository.findUpcomingCalendarRows(LocalDateTime.now());
+        lock.writeLock().lock();
+        try {
+            // изменения, пришедшие во время загрузки, новее строк из базы
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                if (!changedDuringBuild.contains(id)) {
+                    add(new Entry(id, (String) row[1], (LocalDateTime) row[2], (Long) row[3]));
+                }
+            }
+            changedDuringBuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Календарь событий построен: {} событий за {} мс", entries.size(), System.currentTimeMillis() - started);
+    }
+
+    @Scheduled(fixedDelayString = "${ewm.event-calendar.expire-interval-ms:60000}")
+    public void expire() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int removed = 0;
+        lock.writeLock().lock();
+        try {
+            while (!days.isEmpty() && !days.firstKey().isAfter(now.toLocalDate())) {
+                TreeSet<Entry> day = days.firstEntry().getValue();
+                NavigableSet<Entry> past = day.headSet(bound(now, Long.MAX_VALUE), true);
+                removed += past.size();
+                for (Entry entry : past) {
+                    entries.remove(entry.id());
+                    removeFromDays(categoryDays.get(entry.categoryId()), entry);
+                }
+                past.clear();
+                if (!day.isEmpty()) {
+                    break;
+                }
+                days.pollFirstEntry();
+            }
+            categoryDays.values().removeIf(TreeMap::isEmpty);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (removed > 0) {
+            log.debug("Из календаря удалены прошедшие события: {}", removed);
+        }
+    }
+
+    @Override
+    public List<CalendarDayDto> getCalendar(EventFilter filter) {
+        LocalDateTime end = filter.getRangeEnd();
+        if (end == null) {
+            throw new BadRequestException("Для календаря нужна дата окончания rangeEnd");
+        }
+        if (filter.getRangeStart() != null && filter.getRangeStart().isAfter(end)) {
+            throw new BadRequestException("Начало должно быть до окончания");
+        }
+        if (filter.getSize() == null || filter.getSize() <= 0) {
+            throw new BadRequestException("Количество событий должно быть положительным");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = filter.getRangeStart() == null || filter.getRangeStart().isBefore(now)
+                ? now
+                : filter.getRangeStart();
+        if (start.isAfter(end)) {
+            return List.of();
+        }
+        int size = Math.min(filter.getSize(), maxSize);
+        Set<Long> categories = filter.getCategories() == null || filter.getCategories().isEmpty()
+                ? null
+                : new HashSet<>(filter.getCategories());
+        List<CalendarEventDto> events = ready
+                ? findInIndex(start, end, categories, size)
+                : findInDatabase(start, end, filter.getCategories(), size);
+
+        Map<LocalDate, List<CalendarEventDto>> byDay = new LinkedHashMap<>();
+        events.forEach(event -> byDay.computeIfAbsent(event.getEventDate().toLocalDate(), day -> new ArrayList<>())
+                .add(event));
+        return byDay.entrySet().stream()
+                .map(day -> new CalendarDayDto(day.getKey(), day.getValue()))
+                .toList();
+    }
+
+    private List<CalendarEventDto> findInIndex(LocalDateTime start, LocalDateTime end, Set<Long> categories, int size) {
+        List<Entry> found;
+        lock.readLock().lock();
+        try {
+            if (categories == null) {
+                found = findInDays(days, start, end, size);
+            } else {
+                // первые size событий каждой категории, затем общие первые size среди них
+                found = new ArrayList<>();
+                for (Long categoryId : categories) {
+                    TreeMap<LocalDate, TreeSet<Entry>> byDay = categoryDays.get(categoryId);
+                    if (byDay != null) {
+                        found.addAll(findInDays(byDay, start, end, size));
+                    }
+                }
+                found.sort(BY_EVENT_DATE);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found.stream()
+                .limit(size)
+                .map(entry -> new CalendarEventDto(entry.id(), entry.title(), entry.eventDate(), entry.categoryId()))
+                .toList();
+    }
+
+    private static List<Entry> findInDays(TreeMap<LocalDate, TreeSet<Entry>> byDay, LocalDateTime start,
+                                          LocalDateTime end, int size) {
+        List<Entry> result = new ArrayList<>();
+        for (TreeSet<Entry> day : byDay.subMap(start.toLocalDate(), true, end.toLocalDate(), true).values()) {
+            for (Entry entry : day.tailSet(bound(start, Long.MIN_VALUE), true)) {
+                if (entry.eventDate().isAfter(end) || result.size() == size) {
+                    return result;
+                }
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    private List<CalendarEventDto> findInDatabase(LocalDateTime start, LocalDateTime end, List<Long> categories, int size) {
+        EventFilter filter = new EventFilter();
+        filter.setRangeStart(start);
+        filter.setRangeEnd(end);
+        filter.setCategories(categories);
+        return eventRepository.findShortDtos(EventSpecifications.publicSearch(filter),
+                        new OffsetPageRequest(0, size, PublishedEventIndex.BY_EVENT_DATE))
+                .stream()
+                .map(dto -> new CalendarEventDto(dto.getId(), dto.getTitle(), dto.getEventDate(), dto.getCategory().getId()))
+                .toList();
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.id());
+            }
+            Entry old = entries.remove(event.id());
+            if (old != null) {
+                removeFromDays(days, old);
+                TreeMap<LocalDate, TreeSet<Entry>> byDay = categoryDays.get(old.categoryId());
+                removeFromDays(byDay, old);
+                if (byDay != null && byDay.isEmpty()) {
+                    categoryDays.remove(old.categoryId());
+                }
+            }
+            if (event.state() == EventState.PUBLISHED && event.eventDate().isAfter(LocalDateTime.now())) {
+                add(new Entry(event.id(), event.title(), event.eventDate(), event.categoryId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.id(), entry);
+        addToDays(days, entry);
+        addToDays(categoryDays.computeIfAbsent(entry.categoryId(), id -> new TreeMap<>()), entry);
+    }
+
+    private static void addToDays(TreeMap<LocalDate, TreeSet<Entry>> byDay, Entry entry) {
+        byDay.computeIfAbsent(entry.eventDate().toLocalDate(), day -> new TreeSet<>(BY_EVENT_DATE)).add(entry);
+    }
+
+    private static void removeFromDays(TreeMap<LocalDate, TreeSet<Entry>> byDay, Entry entry) {
+        if (byDay == null) {
+            return;
+        }
+        LocalDate date = entry.eventDate().toLocalDate();
+        TreeSet<Entry> day = byDay.get(date);
+        if (day != null && day.remove(entry) && day.isEmpty()) {
+            byDay.remove(date);
+        }
+    }
+
+    /**
+     * Граница для поиска в корзине: id = Long.MIN_VALUE ставит ее перед всеми событиями
+     * в этот момент, Long.MAX_VALUE - после них.
+     */
+    private static Entry bound(LocalDateTime moment, long id) {
+        return new Entry(id, null, moment, null);
+    }
+
+    private record Entry(Long id, String title, LocalDateTime eventDate, Long categoryId) {
+    }
+}
@@ -0,0 +1,322 @@
+package ru.practicum.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.dao.EventRepository;
+import ru.practicum.dto.event.EventClusterDto;
+import ru.practicum.exception.BadRequestException;
+import ru.practicum.model.EventState;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.EventClusterService;
+import ru.practicum.util.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Кластеры событий для карты. Опубликованные события раскладываются по сетке Меркатора
+ * на уровнях 0..MAX_LEVEL (на уровне level 2^level клеток по оси), в каждой клетке хранится
+ * число событий, сумма координат и наименьший id как образец. Запрос с масштабом zoom читает
+ * клетки уровня zoom + 2, то есть примерно 4x4 кластера на тайл карты. Клетки на краю рамки
+ * собираются из дочерних клеток, а на последнем уровне - из событий внутри рамки, поэтому в кластеры
+ * попадают только события рамки, как и при группировке в базе без включенной сетки.
+ */
+@Service
+@Slf4j
+public class EventClusterServiceImpl implements EventClusterService {
+
+    private static final int MAX_LEVEL = 16;
+    private static final int ZOOM_TO_LEVEL = 2;
+    private static final int MAX_CELLS = 4096;
+    private static final int COORDINATE_BITS = 20;
+
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Map<Long, Cell>> levels = new ArrayList<>();
+    private final Map<Long, double[]> positions = new HashMap<>();
+
+    private Set<Long> changedDuringBuild;
+
+    private volatile boolean ready;
+
+    public EventClusterServiceImpl(EventRepository eventRepository,
+                                   @Value("${ewm.clusters.enabled:false}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Object[]> rows = eventRepository.findPublishedLocations();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                // изменения, пришедшие во время загрузки, новее строк из базы, в том числе снятие с публикации
+                if (!changedDuringBuild.contains(id)) {
+                    add(id, (Float) row[1], (Float) row[2]);
+                }
+            }
+            changedDuringBuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Сетка кластеров построена: {} событий за {} мс", positions.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(event.id());
+            }
+            double[] old = positions.get(event.id());
+            boolean visible = event.state() == EventState.PUBLISHED && event.lat() != null && event.lon() != null;
+            if (old != null && visible && old[0] == event.lat() && old[1] == event.lon()) {
+                return;
+            }
+            if (old != null) {
+                remove(event.id());
+            }
+            if (visible) {
+                add(event.id(), event.lat(), event.lon());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<EventClusterDto> getClusters(double minLat, double minLon, double maxLat, double maxLon, int zoom) {
+        checkBox(minLat, minLon, maxLat, maxLon);
+        if (zoom < 0) {
+            throw new BadRequestException("Масштаб не может быть отрицательным");
+        }
+        int level = level(minLat, minLon, maxLat, maxLon, zoom);
+        List<double[]> lonRanges = minLon <= maxLon
+                ? List.of(new double[]{minLon, maxLon})
+                : List.of(new double[]{minLon, 180}, new double[]{-180, maxLon});
+        List<EventClusterDto> clusters = new ArrayList<>();
+        if (!ready) {
+            for (double[] range : lonRanges) {
+                eventRepository.findClusters(minLat, range[0], maxLat, range[1], 1 << level).forEach(row ->
+                        clusters.add(new EventClusterDto(((Number) row[0]).longValue(), (Double) row[1], (Double) row[2],
+                                ((Number) row[3]).longValue())));
+            }
+            return clusters;
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Cell> cells = levels.get(level);
+            int yFrom = GeoUtils.cellY(maxLat, level);
+            int yTo = GeoUtils.cellY(minLat, level);
+            for (double[] range : lonRanges) {
+                double[] box = {minLat, range[0], maxLat, range[1]};
+                int xFrom = GeoUtils.cellX(range[0], level);
+                int xTo = GeoUtils.cellX(range[1], level);
+                for (int x = xFrom; x <= xTo; x++) {
+                    for (int y = yFrom; y <= yTo; y++) {
+                        Cell cell = cells.get(key(x, y));
+                        if (cell == null) {
+                            continue;
+                        }
+                        if (x > xFrom && x < xTo && y > yFrom && y < yTo) {
+                            clusters.add(toCluster(cell));
+                        } else {
+                            Cell clipped = new Cell();
+                            clip(level, x, y, box, clipped);
+                            if (clipped.count > 0) {
+                                clusters.add(toCluster(clipped));
+                            }
+                        }
+                    }
+                }
+            }
+            return clusters;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет в result часть клетки, лежащую в рамке box = {minLat, minLon, maxLat, maxLon}.
+     * Дочерние клетки строго внутри рамки берутся целиком, пересекающие край - рекурсивно.
+     */
+    private void clip(int level, int x, int y, double[] box, Cell result) {
+        Cell cell = levels.get(level).get(key(x, y));
+        if (cell == null) {
+            return;
+        }
+        if (level == MAX_LEVEL) {
+            cell.members.forEach((int id) -> {
+                double[] position = positions.get((long) id);
+                if (position[0] >= box[0] && position[0] <= box[2] && position[1] >= box[1] && position[1] <= box[3]) {
+                    merge(result, 1, position[0], position[1], id);
+                }
+            });
+            return;
+        }
+        int childLevel = level + 1;
+        int xFrom = GeoUtils.cellX(box[1], childLevel);
+        int xTo = GeoUtils.cellX(box[3], childLevel);
+        int yFrom = GeoUtils.cellY(box[2], childLevel);
+        int yTo = GeoUtils.cellY(box[0], childLevel);
+        for (int childX = x * 2; childX <= x * 2 + 1; childX++) {
+            for (int childY = y * 2; childY <= y * 2 + 1; childY++) {
+                if (childX < xFrom || childX > xTo || childY < yFrom || childY > yTo) {
+                    continue;
+                }
+                if (childX > xFrom && childX < xTo && childY > yFrom && childY < yTo) {
+                    Cell child = levels.get(childLevel).get(key(childX, childY));
+                    if (child != null) {
+                        merge(result, child.count, child.sumLat, child.sumLon, child.sampleId);
+                    }
+                } else {
+                    clip(childLevel, childX, childY, box, result);
+                }
+            }
+        }
+    }
+
+    private static void merge(Cell result, int count, double sumLat, double sumLon, long sampleId) {
+        result.sampleId = result.count == 0 ? sampleId : Math.min(result.sampleId, sampleId);
+        result.count += count;
+        result.sumLat += sumLat;
+        result.sumLon += sumLon;
+    }
+
+    private static EventClusterDto toCluster(Cell cell) {
+        return new EventClusterDto((long) cell.count, cell.sumLat / cell.count, cell.sumLon / cell.count, cell.sampleId);
+    }
+
+    /**
+     * Уровень сетки для масштаба, уменьшенный так, чтобы рамка покрывала не больше MAX_CELLS клеток.
+     */
+    private int level(double minLat, double minLon, double maxLat, double maxLon, int zoom) {
+        int level = Math.min(zoom + ZOOM_TO_LEVEL, MAX_LEVEL);
+        while (level > 0 && cellsInBox(minLat, minLon, maxLat, maxLon, level) > MAX_CELLS) {
+            level--;
+        }
+        return level;
+    }
+
+    private long cellsInBox(double minLat, double minLon, double maxLat, double maxLon, int level) {
+        long rows = GeoUtils.cellY(minLat, level) - GeoUtils.cellY(maxLat, level) + 1;
+        long columns = minLon <= maxLon
+                ? GeoUtils.cellX(maxLon, level) - GeoUtils.cellX(minLon, level) + 1
+                : (1L << level) - GeoUtils.cellX(minLon, level) + GeoUtils.cellX(maxLon, level) + 1;
+        return rows * columns;
+    }
+
+    private void add(Long id, double lat, double lon) {
+        positions.put(id, new double[]{lat, lon});
+        for (int level = 0; level <= MAX_LEVEL; level++) {
+            Cell cell = levels.get(level).computeIfAbsent(key(GeoUtils.cellX(lon, level), GeoUtils.cellY(lat, level)),
+                    k -> new Cell());
+            cell.count++;
+            cell.sumLat += lat;
+            cell.sumLon += lon;
+            if (cell.count == 1 || id < cell.sampleId) {
+                cell.sampleId = id;
+            }
+            if (level == MAX_LEVEL) {
+                if (cell.members == null) {
+                    cell.members = new RoaringBitmap();
+                }
+                cell.members.add(Math.toIntExact(id));
+            }
+        }
+    }
+
+    private void remove(Long id) {
+        double[] position = positions.remove(id);
+        double lat = position[0];
+        double lon = position[1];
+        // снизу вверх: образец родителя пересчитывается по уже исправленным дочерним клеткам
+        for (int level = MAX_LEVEL; level >= 0; level--) {
+            int x = GeoUtils.cellX(lon, level);
+            int y = GeoUtils.cellY(lat, level);
+            Map<Long, Cell> cells = levels.get(level);
+            Cell cell = cells.get(key(x, y));
+            cell.count--;
+            if (cell.count == 0) {
+                cells.remove(key(x, y));
+                continue;
+            }
+            cell.sumLat -= lat;
+            cell.sumLon -= lon;
+            if (level == MAX_LEVEL) {
+                cell.members.remove(Math.toIntExact(id));
+                cell.sampleId = cell.members.first();
+            } else if (cell.sampleId == id) {
+                cell.sampleId = minChildSample(level + 1, x, y);
+            }
+        }
+    }
+
+    private long minChildSample(int childLevel, int parentX, int parentY) {
+        Map<Long, Cell> children = levels.get(childLevel);
+        long sample = Long.MAX_VALUE;
+        for (int dx = 0; dx < 2; dx++) {
+            for (int dy = 0; dy < 2; dy++) {
+                Cell child = children.get(key(parentX * 2 + dx, parentY * 2 + dy));
+                if (child != null) {
+                    sample = Math.min(sample, child.sampleId);
+                }
+            }
+        }
+        return sample;
+    }
+
+    private void checkBox(double minLat, double minLon, double maxLat, double maxLon) {
+        if (minLat < -90 || maxLat > 90 || minLon < -180 || minLon > 180 || maxLon < -180 || maxLon > 180) {
+            throw new BadRequestException("Некорректные координаты рамки");
+        }
+        if (minLat > maxLat) {
+            throw new BadRequestException("minLat должна быть не больше maxLat");
+        }
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << COORDINATE_BITS) | y;
+    }
+
+    private static final class Cell {
+        int count;
+        double sumLat;
+        double sumLon;
+        long sampleId;
+        RoaringBitmap members;
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.service.EventCountCache;
+
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+@Service
+public class EventCountCacheImpl implements EventCountCache {
+
+    private final Cache<CountKey, Long> cache;
+
+    public EventCountCacheImpl(MeterRegistry meterRegistry,
+                               @Value("${ewm.event-count-cache.max-size:1000}") long maxSize,
+                               @Value("${ewm.event-count-cache.expire-after-write:30s}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "event-count");
+    }
+
+    @Override
+    public long get(boolean admin, EventFilter filter, ToLongFunction<EventFilter> count) {
+        CountKey key = new CountKey(admin, withoutPaging(filter));
+        return cache.get(key, k -> count.applyAsLong(k.filter()));
+    }
+
+    private static EventFilter withoutPaging(EventFilter filter) {
+        EventFilter copy = new EventFilter();
+        copy.setCategories(filter.getCategories());
+        copy.setRangeStart(filter.getRangeStart());
+        copy.setRangeEnd(filter.getRangeEnd());
+        copy.setText(filter.getText());
+        copy.setPaid(filter.getPaid());
+        copy.setOnlyAvailable(filter.getOnlyAvailable());
+        // сортировка по релевантности включает полнотекстовый поиск и влияет на количество
+        copy.setSort("RELEVANCE".equals(filter.getSort()) ? filter.getSort() : null);
+        copy.setTextMode(filter.getTextMode());
+        copy.setLat(filter.getLat());
+        copy.setLon(filter.getLon());
+        copy.setRadius(filter.getRadius());
+        copy.setMinLat(filter.getMinLat());
+        copy.setMinLon(filter.getMinLon());
+        copy.setMaxLat(filter.getMaxLat());
+        copy.setMaxLon(filter.getMaxLon());
+        copy.setUsers(filter.getUsers());
+        copy.setStates(filter.getStates());
+        copy.setIncludeArchived(filter.getIncludeArchived());
+        copy.setFrom(null);
+        copy.setSize(null);
+        return copy;
+    }
+
+    private record CountKey(boolean admin, EventFilter filter) {
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.stereotype.Service;
+import ru.practicum.dao.ArchivedEventRepository;
+import ru.practicum.dao.EventRepository;
+import ru.practicum.dao.EventSpecifications;
+import ru.practicum.dto.event.EventCountDto;
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.service.EventCountCache;
+import ru.practicum.service.EventCountEstimator;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Каждая calibrate-every-я оценка сверяется с точным подсчетом в фоне; скользящее среднее
+ * относительных расхождений отдается клиенту как ошибка оценки.
+ */
+@Service
+@Slf4j
+public class EventCountEstimatorImpl implements EventCountEstimator {
+
+    private static final double ERROR_SMOOTHING = 0.2;
+
+    private final EventRepository eventRepository;
+    private final ArchivedEventRepository archivedEventRepository;
+    private final EventCountCache eventCountCache;
+    private final Executor executor;
+    private final long exactThreshold;
+    private final long calibrateEvery;
+    private final AtomicLong estimates = new AtomicLong();
+    private final AtomicReference<Double> error = new AtomicReference<>();
+
+    public EventCountEstimatorImpl(EventRepository eventRepository,
+                                   ArchivedEventRepository archivedEventRepository,
+                                   EventCountCache eventCountCache,
+                                   @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+                                   @Value("${ewm.event-count.exact-threshold:10000}") long exactThreshold,
+                                   @Value("${ewm.event-count.calibrate-every:100}") long calibrateEvery) {
+        this.eventRepository = eventRepository;
+        this.archivedEventRepository = archivedEventRepository;
+        this.eventCountCache = eventCountCache;
+        this.executor = executor;
+        this.exactThreshold = exactThreshold;
+        this.calibrateEvery = calibrateEvery;
+    }
+
+    @Override
+    public EventCountDto estimateAdmin(EventFilter filter) {
+        long estimate = eventRepository.estimateAdminCount(filter);
+        if (estimate <= exactThreshold) {
+            return EventCountDto.exact(countAdmin(filter));
+        }
+        if (calibrateEvery > 0 && estimates.getAndIncrement() % calibrateEvery == 0) {
+            calibrate(filter, estimate);
+        }
+        Double current = error.get();
+        return new EventCountDto(estimate, true, current == null ? null : Math.round(current * 100) / 100.0);
+    }
+
+    @Override
+    public long countAdmin(EventFilter filter) {
+        return eventCountCache.get(true, filter, f -> {
+            long count = eventRepository.count(EventSpecifications.adminSearch(f));
+            return Boolean.TRUE.equals(f.getIncludeArchived())
+                    ? count + archivedEventRepository.count(EventSpecifications.archivedAdminSearch(f))
+                    : count;
+        });
+    }
+
+    private void calibrate(EventFilter filter, long estimate) {
+        try {
+            executor.execute(() -> {
+                try {
+                    long exact = countAdmin(filter);
+                    double observed = (double) Math.abs(estimate - exact) / Math.max(exact, 1);
+                    error.accumulateAndGet(observed, (previous, next) -> previous == null
+                            ? next
+                            : previous + ERROR_SMOOTHING * (next - previous));
+                    log.debug("Оценка количества событий {}, точное значение {}", estimate, exact);
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось сверить оценку количества событий: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Сверка оценки количества событий пропущена: очередь заполнена");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.service.CategoryChangedEvent;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.EventDetailsCache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+@Slf4j
+public class EventDetailsCacheImpl implements EventDetailsCache {
+
+    private final boolean enabled;
+    private final Cache<Long, EventFullDto> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public EventDetailsCacheImpl(MeterRegistry meterRegistry,
+                                 @Value("${ewm.event-details-cache.enabled:false}") boolean enabled,
+                                 @Value("${ewm.event-details-cache.max-size:10000}") long maxSize,
+                                 @Value("${ewm.event-details-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "event-details");
+    }
+
+    @Override
+    public Optional<EventFullDto> get(Long eventId) {
+        return enabled ? Optional.ofNullable(cache.getIfPresent(eventId)) : Optional.empty();
+    }
+
+    @Override
+    public long startLoad() {
+        return generation.get();
+    }
+
+    @Override
+    public void put(EventFullDto eventFullDto, long loadToken) {
+        if (enabled && generation.get() == loadToken) {
+            cache.put(eventFullDto.getId(), eventFullDto);
+        }
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        generation.incrementAndGet();
+        cache.invalidate(event.id());
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        generation.incrementAndGet();
+        cache.asMap().values().removeIf(dto -> event.id().equals(dto.getCategory().getId()));
+        log.debug("Из кэша событий удалены события категории {}", event.id());
+    }
+}
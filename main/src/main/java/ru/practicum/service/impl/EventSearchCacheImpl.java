@@ -0,0 +1,202 @@
+package ru.practicum.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.dto.event.filter.TextSearchMode;
+import ru.practicum.dto.page.CursorPage;
+import ru.practicum.model.EventState;
+import ru.practicum.service.CategoryChangedEvent;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.EventSearchCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class EventSearchCacheImpl implements EventSearchCache {
+
+    private final boolean enabled;
+    private final long refreshAfterNanos;
+    private final Cache<SearchKey, Entry> cache;
+    private final Executor executor;
+    private final AtomicLong generation = new AtomicLong();
+
+    public EventSearchCacheImpl(MeterRegistry meterRegistry,
+                                @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+                                @Value("${ewm.event-search-cache.enabled:false}") boolean enabled,
+                                @Value("${ewm.event-search-cache.max-size:1000}") long maxSize,
+                                @Value("${ewm.event-search-cache.refresh-after:5s}") Duration refreshAfter,
+                                @Value("${ewm.event-search-cache.expire-after-write:1m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.executor = executor;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "event-search");
+    }
+
+    @Override
+    public CursorPage<EventShortDto> get(EventFilter filter, Function<EventFilter, CursorPage<EventShortDto>> search) {
+        if (!enabled || filter.getCursor() != null || filter.hasGeoPoint() || filter.hasGeoFilter()) {
+            return search.apply(filter);
+        }
+        SearchKey key = SearchKey.of(filter);
+        Entry[] loaded = new Entry[1];
+        Entry entry = cache.get(key, k -> loaded[0] = load(k, search));
+        if (entry == loaded[0]) {
+            // инвалидация, пришедшая во время загрузки, не видела эту запись
+            if (entry.token != generation.get()) {
+                cache.asMap().remove(key, entry);
+            }
+        } else if (System.nanoTime() - entry.loadedAt > refreshAfterNanos && entry.refreshing.compareAndSet(false, true)) {
+            refresh(key, entry, search);
+        }
+        return entry.page;
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        boolean published = event.state() == EventState.PUBLISHED;
+        cache.asMap().entrySet().removeIf(e -> e.getValue().eventIds.contains(event.id())
+                || published && (e.getKey().coversCategory(event.categoryId())
+                || e.getKey().coversCategory(event.previousCategoryId())));
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        generation.incrementAndGet();
+        cache.asMap().values().removeIf(entry -> entry.page.getItems().stream()
+                .anyMatch(dto -> event.id().equals(dto.getCategory().getId())));
+        log.debug("Из кэша поиска удалены выдачи с категорией {}", event.id());
+    }
+
+    private Entry load(SearchKey key, Function<EventFilter, CursorPage<EventShortDto>> search) {
+        long token = generation.get();
+        return new Entry(search.apply(key.toFilter()), token);
+    }
+
+    private void refresh(SearchKey key, Entry stale, Function<EventFilter, CursorPage<EventShortDto>> search) {
+        try {
+            executor.execute(() -> {
+                try {
+                    Entry fresh = load(key, search);
+                    if (fresh.token == generation.get()) {
+                        cache.asMap().replace(key, stale, fresh);
+                    } else {
+                        cache.asMap().remove(key, stale);
+                    }
+                } catch (RuntimeException e) {
+                    stale.refreshing.set(false);
+                    log.warn("Не удалось обновить выдачу поиска в кэше: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stale.refreshing.set(false);
+        }
+    }
+
+    private static final class Entry {
+        private final CursorPage<EventShortDto> page;
+        private final Set<Long> eventIds;
+        private final long token;
+        private final long loadedAt = System.nanoTime();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(CursorPage<EventShortDto> page, long token) {
+            this.page = page;
+            this.eventIds = page.getItems().stream()
+                    .map(EventShortDto::getId)
+                    .collect(Collectors.toUnmodifiableSet());
+            this.token = token;
+        }
+    }
+
+    /**
+     * Фильтр без различий, не влияющих на выдачу: категории отсортированы и без повторов,
+     * текст в нижнем регистре. Границы дат входят в ключ как есть: выдача, посчитанная для более
+     * широкого интервала, содержала бы события вне запрошенного.
+     */
+    private record SearchKey(String text,
+                             TextSearchMode textMode,
+                             List<Long> categories,
+                             Boolean paid,
+                             boolean onlyAvailable,
+                             LocalDateTime rangeStart,
+                             LocalDateTime rangeEnd,
+                             String sort,
+                             int from,
+                             int size) {
+
+        static SearchKey of(EventFilter filter) {
+            String text = filter.getText() == null ? null : filter.getText().toLowerCase();
+            List<Long> categories = filter.getCategories() == null ? List.of() : filter.getCategories().stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .toList();
+            return new SearchKey(text,
+                    text == null ? null : filter.getTextMode(),
+                    categories,
+                    filter.getPaid(),
+                    Boolean.TRUE.equals(filter.getOnlyAvailable()),
+                    filter.getRangeStart(),
+                    filter.getRangeEnd(),
+                    filter.getSort(),
+                    filter.getFrom(),
+                    filter.getSize());
+        }
+
+        boolean coversCategory(Long categoryId) {
+            return categories.isEmpty() || categories.contains(categoryId);
+        }
+
+        EventFilter toFilter() {
+            EventFilter filter = new EventFilter();
+            filter.setText(text);
+            if (textMode != null) {
+                filter.setTextMode(textMode);
+            }
+            filter.setCategories(categories.isEmpty() ? null : categories);
+            filter.setPaid(paid);
+            filter.setOnlyAvailable(onlyAvailable);
+            filter.setRangeStart(rangeStart);
+            filter.setRangeEnd(rangeEnd);
+            filter.setSort(sort);
+            filter.setFrom(from);
+            filter.setSize(size);
+            return filter;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dao.EventSearchRepository;
+import ru.practicum.service.EventSearchProjection;
+
+import java.util.Collection;
+
+@Service
+@Slf4j
+public class EventSearchProjectionImpl implements EventSearchProjection {
+
+    private final EventSearchRepository eventSearchRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+
+    public EventSearchProjectionImpl(EventSearchRepository eventSearchRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     @Value("${ewm.event-search-projection.enabled:false}") boolean enabled) {
+        this.eventSearchRepository = eventSearchRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Пока проекция была выключена, записи в нее не велись, поэтому при старте она
+     * собирается заново одним запросом.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        Integer rows = transactionTemplate.execute(status -> {
+            eventSearchRepository.deleteAllRows();
+            return eventSearchRepository.insertAllPublished();
+        });
+        log.info("Проекция поиска event_search собрана: {} событий за {} мс",
+                rows, System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void refreshEvent(Long eventId) {
+        if (!enabled) {
+            return;
+        }
+        if (eventSearchRepository.deleteIfNotPublished(eventId) == 0) {
+            eventSearchRepository.upsertPublished(eventId);
+        }
+    }
+
+    @Override
+    public void removeEvents(Collection<Long> eventIds) {
+        if (enabled && !eventIds.isEmpty()) {
+            eventSearchRepository.deleteByIds(eventIds);
+        }
+    }
+
+    @Override
+    public void addComments(Long eventId, long delta) {
+        if (enabled) {
+            eventSearchRepository.addComments(eventId, delta);
+        }
+    }
+
+    @Override
+    public void renameCategory(Long categoryId, String name) {
+        if (enabled) {
+            eventSearchRepository.renameCategory(categoryId, name);
+        }
+    }
+
+    @Override
+    public void updateViews(Long eventId, Long views) {
+        if (enabled) {
+            eventSearchRepository.updateViews(eventId, views);
+        }
+    }
+}
@@ -3,17 +3,24 @@ package ru.practicum.service.impl;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.EndpointHitDto;
 import ru.practicum.ViewStatsDto;
-import ru.practicum.client.StatsClient;
+import ru.practicum.dao.ArchivedEventRepository;
 import ru.practicum.dao.CommentRepository;
+import ru.practicum.dao.EventSearchRepository;
+import ru.practicum.dao.EventSearchSpecifications;
+import ru.practicum.dao.EventSpecifications;
 import ru.practicum.dto.event.filter.EventFilter;
 import ru.practicum.dto.event.*;
+import ru.practicum.dto.page.CursorPage;
 import ru.practicum.exception.BadRequestException;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
@@ -24,12 +31,27 @@ import ru.practicum.model.EventState;
 import ru.practicum.dao.CategoryRepository;
 import ru.practicum.dao.EventRepository;
 import ru.practicum.dao.UserRepository;
+import ru.practicum.service.AsyncQueryService;
+import ru.practicum.service.AsyncStatsService;
 import ru.practicum.service.EventService;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.EventCountCache;
+import ru.practicum.service.EventCountEstimator;
+import ru.practicum.service.EventDetailsCache;
+import ru.practicum.service.EventSearchCache;
+import ru.practicum.service.EventSearchProjection;
+import ru.practicum.service.EventViewsSyncService;
+import ru.practicum.service.HitOutboxService;
+import ru.practicum.service.PublishedEventIndex;
+import ru.practicum.util.CursorCodec;
+import ru.practicum.util.OffsetPageRequest;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
@@ -38,14 +60,26 @@ import java.util.stream.Collectors;
 public class EventServiceImpl implements EventService {
 
     private final EventRepository eventRepository;
+    private final EventSearchRepository eventSearchRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final CommentRepository commentRepository;
+    private final ArchivedEventRepository archivedEventRepository;
 
     private final EventMapper eventMapper;
     private final LocationMapper locationMapper;
 
-    private final StatsClient statsClient;
+    private final AsyncStatsService asyncStatsService;
+    private final AsyncQueryService asyncQueryService;
+    private final HitOutboxService hitOutboxService;
+    private final EventViewsSyncService eventViewsSyncService;
+    private final PublishedEventIndex publishedEventIndex;
+    private final EventDetailsCache eventDetailsCache;
+    private final EventSearchCache eventSearchCache;
+    private final EventSearchProjection eventSearchProjection;
+    private final EventCountCache eventCountCache;
+    private final EventCountEstimator eventCountEstimator;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
@@ -62,6 +96,7 @@ public class EventServiceImpl implements EventService {
         Location location = locationMapper.toEntity(requestEventDto.getLocation());
         Event event = eventMapper.toEvent(requestEventDto, initiator, category, location);
         eventRepository.save(event);
+        eventPublisher.publishEvent(EventChangedEvent.of(event));
         log.debug("Добавлен евент с id {}", event.getId());
         return eventMapper.toFullDto(event);
     }
@@ -70,20 +105,59 @@ public class EventServiceImpl implements EventService {
     public EventFullDto getUserEventByUserIdAndEventId(Long userId, Long eventId) {
         log.info("Получение информации юзером с id: {} об евенте с id: {}", userId, eventId);
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User", "id", userId));
-        Event event = eventRepository.findByIdAndInitiatorId(eventId, userId).orElseThrow(() -> new NotFoundException("Event", "id", eventId));
+        EventFullDto event = eventRepository.findByIdAndInitiatorId(eventId, userId)
+                .map(eventMapper::toFullDto)
+                .or(() -> archivedEventRepository.findByIdAndInitiatorId(eventId, userId).map(eventMapper::toFullDto))
+                .orElseThrow(() -> new NotFoundException("Event", "id", eventId));
         log.debug("Получена информация о евенте с id: {}", eventId);
-        return eventMapper.toFullDto(event);
+        return event;
     }
 
     @Override
-    public List<EventShortDto> getUserEvents(Long userId, Integer from, Integer size) {
+    public CursorPage<EventShortDto> getUserEvents(Long userId, Integer from, Integer size, String cursor) {
         log.info("Получение юзером информации с id: {} о его созданных евентах", userId);
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("User", "id", userId));
-        Pageable pageable = PageRequest.of(from / size, size);
-        List<Event> events = eventRepository.findByInitiatorIdOrderByEventDateDesc(pageable, userId);
+        Sort sort = Sort.by(Sort.Direction.DESC, "eventDate", "id");
+        List<EventShortDto> events;
+        if (archivedEventRepository.existsByInitiatorId(userId)) {
+            events = findUserEventsWithArchive(userId, from, size, cursor, sort);
+        } else {
+            events = cursor != null
+                    ? eventRepository.findShortDtos(EventSpecifications.byInitiator(userId), sort,
+                            CursorCodec.decode(cursor, sort), size + 1)
+                    : eventRepository.findShortDtos(EventSpecifications.byInitiator(userId),
+                            new OffsetPageRequest(from, size + 1, sort));
+        }
+        boolean hasNext = events.size() > size;
+        events = hasNext ? events.subList(0, size) : events;
         log.debug("Найдено {} событий для пользователя id={}", events.size(), userId);
-        return events.stream()
-                .map(eventMapper::toShortDto)
+        String nextCursor = hasNext ? CursorCodec.encode(sort, events.get(events.size() - 1)) : null;
+        return new CursorPage<>(events, nextCursor);
+    }
+
+    /**
+     * Часть событий инициатора в архиве: страница id строится одним запросом по обеим таблицам,
+     * затем DTO читаются по этим id.
+     */
+    private List<EventShortDto> findUserEventsWithArchive(Long userId, Integer from, Integer size, String cursor, Sort sort) {
+        List<Long> ids;
+        if (cursor != null) {
+            Map<String, Object> keys = CursorCodec.decode(cursor, sort).getKeys();
+            ids = archivedEventRepository.findInitiatorPageIdsAfter(userId, (LocalDateTime) keys.get("eventDate"),
+                    (Long) keys.get("id"), size + 1);
+        } else {
+            ids = archivedEventRepository.findInitiatorPageIds(userId, from, size + 1);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, EventShortDto> byId = Stream.concat(
+                        eventRepository.findShortDtos(EventSpecifications.byIds(ids), Pageable.unpaged()).stream(),
+                        eventRepository.findArchivedShortDtos(EventSpecifications.archivedByIds(ids)).stream())
+                .collect(Collectors.toMap(EventShortDto::getId, dto -> dto));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
@@ -100,6 +174,7 @@ public class EventServiceImpl implements EventService {
         if (dto.getEventDate() != null && dto.getEventDate().isBefore(LocalDateTime.now().plusHours(2))) {
             throw new ConflictException("Дата не может быть раньше, чем через два часа от текущего момента");
         }
+        Long previousCategoryId = event.getCategory().getId();
         eventMapper.updateUserEvent(dto, event);
         if (dto.getCategory() != null) {
             Category category = categoryRepository.findById(dto.getCategory())
@@ -117,117 +192,265 @@ public class EventServiceImpl implements EventService {
             }
         }
         Event updatedEvent = eventRepository.save(event);
+        eventSearchProjection.refreshEvent(updatedEvent.getId());
+        eventPublisher.publishEvent(EventChangedEvent.of(updatedEvent, previousCategoryId));
         log.info("Евент с id: {} обновлен", eventId);
         return eventMapper.toFullDto(updatedEvent);
     }
 
     @Override
+    // каждый запрос к базе идет в своей транзакции, соединение не удерживается, пока ждем статистику
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public EventFullDto getEventById(Long eventId, HttpServletRequest request) {
         log.info("Паблик получение евента с id {}", eventId);
-        Event event = eventRepository.findById(eventId)
-                .filter(e -> e.getState().equals(EventState.PUBLISHED))
-                .orElseThrow(() -> new NotFoundException("Event", "EventId", eventId));
+        EventFullDto cached = eventDetailsCache.get(eventId).orElseGet(() -> {
+            long loadToken = eventDetailsCache.startLoad();
+            // прошедшие события могли уйти в архив, их карточка читается оттуда
+            EventFullDto loaded = eventRepository.findWithCategoryAndInitiatorById(eventId)
+                    .filter(e -> e.getState().equals(EventState.PUBLISHED))
+                    .map(eventMapper::toFullDto)
+                    .or(() -> archivedEventRepository.findWithCategoryAndInitiatorById(eventId)
+                            .filter(e -> e.getState().equals(EventState.PUBLISHED))
+                            .map(eventMapper::toFullDto))
+                    .orElseThrow(() -> new NotFoundException("Event", "EventId", eventId));
+            eventDetailsCache.put(loaded, loadToken);
+            return loaded;
+        });
 
         saveStats(request);
-        EventFullDto eventFullDto = eventMapper.toFullDto(event);
-        eventFullDto.setViews(getStats(event));
-        Long comments = commentRepository.countByEventId(eventId);
-        eventFullDto.setComments(comments);
+        // просмотры и комментарии накладываются на копию, закэшированный объект не меняется
+        EventFullDto eventFullDto = eventMapper.copy(cached);
+        CompletableFuture<Long> views = getStats(eventFullDto.getId(), eventFullDto.getPublishedOn());
+        CompletableFuture<Long> comments = asyncQueryService.query(
+                () -> commentRepository.countByEventIdWithArchive(eventId), 0L);
+        eventFullDto.setViews(views.join());
+        eventFullDto.setComments(comments.join());
         log.debug("Евент получен, статистика записана, евент с id {}", eventId);
         return eventFullDto;
     }
 
     private void saveStats(HttpServletRequest request) {
-        try {
-            EndpointHitDto hit = EndpointHitDto.builder()
-                    .app("ewm-main-service")
-                    .uri(request.getRequestURI())
-                    .ip(request.getRemoteAddr())
-                    .timestamp(LocalDateTime.now())
-                    .build();
-            statsClient.saveHit(hit);
-        } catch (Exception e) {
-            log.warn("Не удалось записать статистику: {}", e.getMessage());
-        }
+        EndpointHitDto hit = EndpointHitDto.builder()
+                .app("ewm-main-service")
+                .uri(request.getRequestURI())
+                .ip(request.getRemoteAddr())
+                .timestamp(LocalDateTime.now())
+                .build();
+        hitOutboxService.record(hit);
     }
 
-    private Long getStats(Event event) {
-        if (event.getPublishedOn() == null) {
+    private CompletableFuture<Long> getStats(Long eventId, LocalDateTime publishedOn) {
+        if (publishedOn == null) {
             log.warn("Published on is null");
-            return 0L;
+            return CompletableFuture.completedFuture(0L);
         }
 
-        String start = event.getPublishedOn().format(DATE_TIME_FORMATTER);
+        String start = publishedOn.format(DATE_TIME_FORMATTER);
         String end = LocalDateTime.now().format(DATE_TIME_FORMATTER);
-        String uri = "/events/" + event.getId();
+        String uri = "/events/" + eventId;
 
-        try {
-            List<ViewStatsDto> viewStatsDtos = statsClient.getStats(start, end, List.of(uri), true);
+        return asyncStatsService.request(client -> {
+            List<ViewStatsDto> viewStatsDtos = client.getStats(start, end, List.of(uri), true);
             if (viewStatsDtos == null || viewStatsDtos.isEmpty()) {
                 return 0L;
             } else {
                 return viewStatsDtos.get(0).getHits();
             }
-        } catch (Exception e) {
-            log.warn("Не удалось получить статистику: {}", e.getMessage());
-            return 0L;
-        }
+        }, 0L);
     }
 
     @Override
-    public List<EventShortDto> searchPublic(EventFilter filter, HttpServletRequest request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CursorPage<EventShortDto> searchPublic(EventFilter filter, HttpServletRequest request) {
         log.info("Начат паблик поиска евентов");
         checkRangeTime(filter.getRangeStart(), filter.getRangeEnd());
+        checkGeo(filter);
+
+        CursorPage<EventShortDto> page = eventSearchCache.get(filter, this::findPublicEvents);
+        if (!page.getItems().isEmpty()) {
+            saveStats(request);
+        }
+        return page;
+    }
 
-        Pageable pageable = PageRequest.of(filter.getFrom() / filter.getSize(), filter.getSize());
-        Page<Event> events = eventRepository.findPublicEvents(
-                filter.getText(),
-                filter.getCategories(),
-                filter.getPaid(),
-                filter.getRangeStart(),
-                filter.getRangeEnd(),
-                filter.getOnlyAvailable(),
-                pageable
-        );
+    private CursorPage<EventShortDto> findPublicEvents(EventFilter filter) {
+        Sort sort = publicSort(filter);
+        int size = filter.getSize();
+        List<EventShortDto> events;
+        if (filter.getCursor() != null) {
+            if (isOrderedBySpecification(filter)) {
+                throw new BadRequestException("Курсор не поддерживается при сортировке по релевантности или расстоянию");
+            }
+            KeysetScrollPosition position = CursorCodec.decode(filter.getCursor(), sort);
+            events = eventSearchProjection.isEnabled()
+                    ? eventSearchRepository.findShortDtos(EventSearchSpecifications.publicSearch(filter), sort, position, size + 1)
+                    : eventRepository.findShortDtos(EventSpecifications.publicSearch(filter), sort, position, size + 1);
+        } else {
+            Pageable pageable = new OffsetPageRequest(filter.getFrom(), size + 1, sort);
+            events = publishedEventIndex.findIds(filter, sort, filter.getFrom(), size + 1)
+                    .map(this::loadShortDtosInOrder)
+                    .orElseGet(() -> eventSearchProjection.isEnabled()
+                            ? eventSearchRepository.findShortDtos(EventSearchSpecifications.publicSearch(filter), pageable)
+                            : eventRepository.findShortDtos(EventSpecifications.publicSearch(filter), pageable));
+        }
+        boolean hasNext = events.size() > size;
+        events = hasNext ? events.subList(0, size) : events;
 
         if (events.isEmpty()) {
-            return List.of();
+            return new CursorPage<>(List.of(), null);
+        }
+        String nextCursor = hasNext && !isOrderedBySpecification(filter)
+                ? CursorCodec.encode(sort, events.get(events.size() - 1))
+                : null;
+        List<EventShortDto> result = new ArrayList<>(events);
+        // в проекции комментарии уже посчитаны, а при синхронизации просмотров в ней и просмотры
+        if (!eventSearchProjection.isEnabled() || !eventViewsSyncService.isEnabled()) {
+            addViewsAndComments(result, !eventSearchProjection.isEnabled());
         }
-        saveStats(request);
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-        Map<Long, Long> eventViewsMap = getViewsForEvents(events);
-        Map<Long, Long> commentsByEventId = getCommentsByEventIds(eventIds);
-        List<EventShortDto> result = events.stream()
-                .map(event -> {
-                    EventShortDto dto = eventMapper.toShortDto(event);
-                    dto.setViews(eventViewsMap.getOrDefault(event.getId(), 0L));
-                    dto.setComments(commentsByEventId.getOrDefault(event.getId(), 0L));
-                    return dto;
-                })
-                .collect(Collectors.toList());
 
         if ("EVENT_DATE".equals(filter.getSort())) {
             result.sort(Comparator.comparing(EventShortDto::getEventDate));
-        } else if ("VIEWS".equals(filter.getSort())) {
+        } else if ("VIEWS".equals(filter.getSort()) && !eventViewsSyncService.isEnabled()) {
             result.sort(Comparator.comparing(EventShortDto::getViews));
         }
         log.debug("Поиск завершен, размер списка {}", result.size());
-        return result;
+        return new CursorPage<>(result, nextCursor);
+    }
+
+    private void addViewsAndComments(List<EventShortDto> events, boolean withComments) {
+        List<Long> eventIds = events.stream()
+                .map(EventShortDto::getId)
+                .collect(Collectors.toList());
+        CompletableFuture<Map<Long, Long>> views = getViewsForEvents(eventIds, events.stream().map(EventShortDto::getPublishedOn));
+        CompletableFuture<Map<Long, Long>> comments = withComments
+                ? getCommentsByEventIds(eventIds, false)
+                : CompletableFuture.completedFuture(Map.of());
+        Map<Long, Long> eventViewsMap = views.join();
+        Map<Long, Long> commentsByEventId = comments.join();
+        events.forEach(dto -> {
+            dto.setViews(eventViewsMap.getOrDefault(dto.getId(), 0L));
+            if (withComments) {
+                dto.setComments(commentsByEventId.getOrDefault(dto.getId(), 0L));
+            }
+        });
+    }
+
+    private List<EventShortDto> loadShortDtosInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<EventShortDto> dtos = eventSearchProjection.isEnabled()
+                ? eventSearchRepository.findShortDtos(EventSearchSpecifications.byIds(ids), Pageable.unpaged())
+                : eventRepository.findShortDtos(EventSpecifications.byIds(ids), Pageable.unpaged());
+        Map<Long, EventShortDto> byId = dtos.stream()
+                .collect(Collectors.toMap(EventShortDto::getId, dto -> dto));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private Sort publicSort(EventFilter filter) {
+        if (isOrderedBySpecification(filter)) {
+            return Sort.unsorted();
+        }
+        if ("EVENT_DATE".equals(filter.getSort())) {
+            return PublishedEventIndex.BY_EVENT_DATE;
+        }
+        if ("VIEWS".equals(filter.getSort()) && eventViewsSyncService.isEnabled()) {
+            return Sort.by(Sort.Direction.DESC, "views", "id");
+        }
+        return PublishedEventIndex.BY_ID;
+    }
+
+    @Override
+    public EventFacetsDto getFacets(EventFilter filter) {
+        log.info("Подсчет фасетов публичного поиска");
+        checkRangeTime(filter.getRangeStart(), filter.getRangeEnd());
+        checkGeo(filter);
+        return publishedEventIndex.facets(filter).orElseGet(() -> countFacets(filter));
+    }
+
+    @Override
+    public EventCountDto countPublic(EventFilter filter) {
+        log.info("Подсчет количества событий публичного поиска");
+        checkRangeTime(filter.getRangeStart(), filter.getRangeEnd());
+        checkGeo(filter);
+        long count = publishedEventIndex.facets(filter)
+                .map(EventFacetsDto::getTotal)
+                .orElseGet(() -> eventCountCache.get(false, filter,
+                        f -> eventRepository.count(EventSpecifications.publicSearch(f))));
+        return EventCountDto.exact(count);
+    }
+
+    @Override
+    public EventCountDto countAdmin(EventFilter filter, boolean approximate) {
+        log.info("Подсчет количества событий админ поиска, приблизительно: {}", approximate);
+        checkRangeTime(filter.getRangeStart(), filter.getRangeEnd());
+        if (approximate) {
+            return eventCountEstimator.estimateAdmin(filter);
+        }
+        return EventCountDto.exact(eventCountEstimator.countAdmin(filter));
+    }
+
+    private EventFacetsDto countFacets(EventFilter filter) {
+        EventFilter facetFilter = new EventFilter();
+        facetFilter.setText(filter.getText());
+        facetFilter.setTextMode(filter.getTextMode());
+        facetFilter.setSort(filter.getSort());
+        facetFilter.setRangeStart(filter.getRangeStart());
+        facetFilter.setRangeEnd(filter.getRangeEnd());
+        facetFilter.setOnlyAvailable(filter.getOnlyAvailable());
+        facetFilter.setLat(filter.getLat());
+        facetFilter.setLon(filter.getLon());
+        facetFilter.setRadius(filter.getRadius());
+        facetFilter.setMinLat(filter.getMinLat());
+        facetFilter.setMinLon(filter.getMinLon());
+        facetFilter.setMaxLat(filter.getMaxLat());
+        facetFilter.setMaxLon(filter.getMaxLon());
+        Set<Long> categories = filter.getCategories() == null || filter.getCategories().isEmpty()
+                ? null
+                : new HashSet<>(filter.getCategories());
+
+        long total = 0;
+        long paid = 0;
+        long free = 0;
+        Map<Long, Long> byCategory = new HashMap<>();
+        for (Object[] row : eventRepository.countByCategoryAndPaid(EventSpecifications.publicSearch(facetFilter))) {
+            Long categoryId = (Long) row[0];
+            boolean rowPaid = (Boolean) row[1];
+            long count = (Long) row[2];
+            boolean categoryMatches = categories == null || categories.contains(categoryId);
+            boolean paidMatches = filter.getPaid() == null || filter.getPaid() == rowPaid;
+            if (paidMatches) {
+                byCategory.merge(categoryId, count, Long::sum);
+            }
+            if (categoryMatches) {
+                if (rowPaid) {
+                    paid += count;
+                } else {
+                    free += count;
+                }
+            }
+            if (categoryMatches && paidMatches) {
+                total += count;
+            }
+        }
+        return new EventFacetsDto(total, byCategory, paid, free);
     }
 
     @Override
     @Transactional
     public EventFullDto adminEditEvent(Long eventId, UpdateEventAdminRequestDto dto) {
         log.info("Редактирование евента админом, евент id {}", eventId);
-        Event event = eventRepository.findById(eventId).orElseThrow(() -> new NotFoundException("Event", "id", eventId));
+        Event event = eventRepository.findWithCategoryAndInitiatorById(eventId).orElseThrow(() -> new NotFoundException("Event", "id", eventId));
 
         if (dto.getEventDate() != null && event.getPublishedOn() != null) {
             if (dto.getEventDate().isBefore(event.getPublishedOn().plusHours(1))) {
                 throw new ConflictException("дата начала изменяемого события должна быть не ранее чем за час от даты публикации");
             }
         }
+        Long previousCategoryId = event.getCategory().getId();
         eventMapper.updateAdminEvent(dto, event);
         if (dto.getCategory() != null) {
             Category category = categoryRepository.findById(dto.getCategory()).orElseThrow(() -> new NotFoundException("Category", "id", dto.getCategory()));
@@ -250,39 +473,93 @@ public class EventServiceImpl implements EventService {
             }
         }
         event = eventRepository.save(event);
+        eventSearchProjection.refreshEvent(event.getId());
+        eventPublisher.publishEvent(EventChangedEvent.of(event, previousCategoryId));
         log.debug("Редактирование админом завершено, текущий статус евента: {}", event.getState());
         return eventMapper.toFullDto(event);
     }
 
     @Override
-    public List<EventFullDto> searchAdmin(EventFilter filter) {
+    public CursorPage<EventFullDto> searchAdmin(EventFilter filter) {
         log.info("Начат админ поиск евентов");
         checkRangeTime(filter.getRangeStart(), filter.getRangeEnd());
 
-        Pageable pageable = PageRequest.of(filter.getFrom() / filter.getSize(), filter.getSize());
-        Page<Event> events = eventRepository.findAdminEvents(
-                filter.getUsers(),
-                filter.getStates(),
-                filter.getCategories(),
-                filter.getRangeStart(),
-                filter.getRangeEnd(),
-                pageable
-        );
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-        Map<Long, Long> eventViewsMap = getViewsForEvents(events);
-        Map<Long, Long> commentsByEventId = getCommentsByEventIds(eventIds);
-        List<EventFullDto> result = events.stream()
-                .map(event -> {
-                    EventFullDto dto = eventMapper.toFullDto(event);
-                    dto.setViews(eventViewsMap.getOrDefault(event.getId(), 0L));
-                    dto.setComments(commentsByEventId.getOrDefault(event.getId(), 0L));
-                    return dto;
-                })
+        Sort sort = Sort.by("id");
+        boolean withArchive = Boolean.TRUE.equals(filter.getIncludeArchived());
+        List<EventFullDto> found;
+        boolean hasNext;
+        if (filter.getCursor() != null) {
+            KeysetScrollPosition position = CursorCodec.decode(filter.getCursor(), sort);
+            Window<Event> window = eventRepository.findBy(EventSpecifications.adminSearch(filter)
+                            .and(EventSpecifications.fetchCategoryAndInitiator()),
+                    q -> q.sortBy(sort).limit(filter.getSize()).scroll(position));
+            found = window.map(eventMapper::toFullDto).getContent();
+            hasNext = window.hasNext();
+            if (withArchive) {
+                Window<ArchivedEvent> archived = archivedEventRepository.findBy(
+                        EventSpecifications.archivedAdminSearch(filter)
+                                .and(EventSpecifications.fetchArchivedCategoryAndInitiator()),
+                        q -> q.sortBy(sort).limit(filter.getSize()).scroll(position));
+                found = mergeById(found, archived.map(eventMapper::toFullDto).getContent());
+                hasNext = hasNext || archived.hasNext() || found.size() > filter.getSize();
+            }
+        } else if (withArchive) {
+            // страница id строится одним запросом по обеим таблицам, события читаются только по ее id
+            List<Long> ids = archivedEventRepository.findAdminPageIds(filter, filter.getFrom(), filter.getSize() + 1);
+            hasNext = ids.size() > filter.getSize();
+            List<Long> pageIds = hasNext ? ids.subList(0, filter.getSize()) : ids;
+            found = pageIds.isEmpty() ? List.of() : mergeById(
+                    eventRepository.findSlice(EventSpecifications.byIds(pageIds)
+                                            .and(EventSpecifications.fetchCategoryAndInitiator()),
+                                    Pageable.unpaged(sort)).stream()
+                            .map(eventMapper::toFullDto)
+                            .toList(),
+                    archivedEventRepository.findBy(EventSpecifications.archivedByIds(pageIds)
+                                            .and(EventSpecifications.fetchArchivedCategoryAndInitiator()),
+                                    q -> q.sortBy(sort).all()).stream()
+                            .map(eventMapper::toFullDto)
+                            .toList());
+        } else {
+            found = eventRepository.findSlice(EventSpecifications.adminSearch(filter)
+                                    .and(EventSpecifications.fetchCategoryAndInitiator()),
+                            new OffsetPageRequest(filter.getFrom(), filter.getSize() + 1, sort)).stream()
+                    .map(eventMapper::toFullDto)
+                    .toList();
+            hasNext = found.size() > filter.getSize();
+        }
+        List<EventFullDto> result = found.size() > filter.getSize() ? found.subList(0, filter.getSize()) : found;
+        List<Long> eventIds = result.stream()
+                .map(EventFullDto::getId)
                 .collect(Collectors.toList());
+        CompletableFuture<Map<Long, Long>> views = getViewsForEvents(eventIds,
+                result.stream().map(EventFullDto::getPublishedOn));
+        CompletableFuture<Map<Long, Long>> comments = getCommentsByEventIds(eventIds, withArchive);
+        Map<Long, Long> eventViewsMap = views.join();
+        Map<Long, Long> commentsByEventId = comments.join();
+        result.forEach(dto -> {
+            dto.setViews(eventViewsMap.getOrDefault(dto.getId(), 0L));
+            dto.setComments(commentsByEventId.getOrDefault(dto.getId(), 0L));
+        });
         log.info("Поиск админом завершен кол-во элементов: {}", result.size());
-        return result;
+        String nextCursor = hasNext ? CursorCodec.encode(sort, result.get(result.size() - 1)) : null;
+        return new CursorPage<>(result, nextCursor);
+    }
+
+    /**
+     * Слияние выборок из events и архива, каждая упорядочена по id; id в таблицах не пересекаются.
+     */
+    private static List<EventFullDto> mergeById(List<EventFullDto> events, List<EventFullDto> archived) {
+        List<EventFullDto> merged = new ArrayList<>(events.size() + archived.size());
+        int i = 0;
+        int j = 0;
+        while (i < events.size() || j < archived.size()) {
+            if (j == archived.size() || i < events.size() && events.get(i).getId() < archived.get(j).getId()) {
+                merged.add(events.get(i++));
+            } else {
+                merged.add(archived.get(j++));
+            }
+        }
+        return merged;
     }
 
     private void checkRangeTime(LocalDateTime start, LocalDateTime end) {
@@ -291,64 +568,84 @@ public class EventServiceImpl implements EventService {
         }
     }
 
-    private Map<Long, Long> getViewsForEvents(Page<Event> events) {
-        LocalDateTime earliestPublishedDate = events.stream()
-                .map(Event::getPublishedOn)
+    /**
+     * Релевантность и расстояние задаются сортировкой внутри условия поиска, курсор для них не строится.
+     */
+    private boolean isOrderedBySpecification(EventFilter filter) {
+        return filter.isFullTextSearch() || filter.isDistanceSort();
+    }
+
+    private void checkGeo(EventFilter filter) {
+        if ((filter.getLat() == null) != (filter.getLon() == null)) {
+            throw new BadRequestException("Координаты точки задаются парой lat и lon");
+        }
+        if (filter.hasGeoPoint()) {
+            checkCoordinates(filter.getLat(), filter.getLon());
+        }
+        if ((filter.getRadius() != null || filter.isDistanceSort()) && !filter.hasGeoPoint()) {
+            throw new BadRequestException("Для поиска по радиусу и сортировки по расстоянию нужна точка lat, lon");
+        }
+        if (filter.getRadius() != null && filter.getRadius() <= 0) {
+            throw new BadRequestException("Радиус должен быть положительным");
+        }
+        if (filter.hasBoundingBox()) {
+            if (filter.getMinLat() == null || filter.getMinLon() == null
+                    || filter.getMaxLat() == null || filter.getMaxLon() == null) {
+                throw new BadRequestException("Рамка задается четырьмя параметрами minLat, minLon, maxLat, maxLon");
+            }
+            checkCoordinates(filter.getMinLat(), filter.getMinLon());
+            checkCoordinates(filter.getMaxLat(), filter.getMaxLon());
+            if (filter.getMinLat() > filter.getMaxLat()) {
+                throw new BadRequestException("minLat должна быть не больше maxLat");
+            }
+        }
+    }
+
+    private void checkCoordinates(double lat, double lon) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new BadRequestException("Некорректные координаты: " + lat + ", " + lon);
+        }
+    }
+
+    /**
+     * Запрос к статистике уходит в отдельный поток, пока вызывающий считает комментарии.
+     */
+    private CompletableFuture<Map<Long, Long>> getViewsForEvents(List<Long> eventIds, Stream<LocalDateTime> publishedOn) {
+        LocalDateTime earliestPublishedDate = publishedOn
                 .filter(Objects::nonNull)
                 .min(LocalDateTime::compareTo)
                 .orElse(null);
 
-        List<Long> eventIds = events.stream()
-                .map(Event::getId)
-                .collect(Collectors.toList());
-
         if (eventIds.isEmpty() || earliestPublishedDate == null) {
-            return new HashMap<>();
+            return CompletableFuture.completedFuture(new HashMap<>());
         }
         List<String> uris = eventIds.stream()
                 .map(id -> "/events/" + id)
                 .collect(Collectors.toList());
-        Map<String, Long> uriViewsMap = getViewsFromStats(uris, earliestPublishedDate);
-        Map<Long, Long> eventViewsMap = new HashMap<>();
-        for (Long eventId : eventIds) {
-            String uri = "/events/" + eventId;
-            eventViewsMap.put(eventId, uriViewsMap.getOrDefault(uri, 0L));
-        }
-
-        return eventViewsMap;
+        return asyncStatsService.request(client -> client.getTotalHits(uris), Map.<String, Long>of())
+                .thenApply(uriViewsMap -> {
+                    Map<Long, Long> eventViewsMap = new HashMap<>();
+                    for (Long eventId : eventIds) {
+                        String uri = "/events/" + eventId;
+                        eventViewsMap.put(eventId, uriViewsMap.getOrDefault(uri, 0L));
+                    }
+                    return eventViewsMap;
+                });
     }
 
-    private Map<String, Long> getViewsFromStats(List<String> uris, LocalDateTime start) {
-        try {
-            LocalDateTime end = LocalDateTime.now();
-            List<ViewStatsDto> stats = statsClient.getStats(
-                    start.format(DATE_TIME_FORMATTER),
-                    end.format(DATE_TIME_FORMATTER),
-                    uris,
-                    false
-            );
-            Map<String, Long> viewsMap = new HashMap<>();
-            for (ViewStatsDto stat : stats) {
-                viewsMap.put(stat.getUri(), stat.getHits());
-            }
-            return viewsMap;
-        } catch (Exception e) {
-            log.warn("Ошибка при получении данных из сервиса статистики: {}", e.getMessage());
-            return new HashMap<>();
-        }
-    }
-
-    private Map<Long, Long> getCommentsByEventIds(List<Long> eventIds) {
+    private CompletableFuture<Map<Long, Long>> getCommentsByEventIds(List<Long> eventIds, boolean withArchive) {
         if (eventIds.isEmpty()) {
-            return Collections.emptyMap();
+            return CompletableFuture.completedFuture(Collections.emptyMap());
         }
-
-        List<Object[]> results = commentRepository.countCommentsByEventIdIn(eventIds);
-
-        return results.stream()
-                .collect(Collectors.toMap(
-                        result -> (Long) result[0],
-                        result -> (Long) result[1]
-                ));
+        return asyncQueryService.query(() -> {
+            Map<Long, Long> comments = new HashMap<>();
+            commentRepository.countCommentsByEventIdIn(eventIds)
+                    .forEach(row -> comments.put((Long) row[0], (Long) row[1]));
+            if (withArchive) {
+                archivedEventRepository.countCommentsByEventIdIn(eventIds)
+                        .forEach(row -> comments.put((Long) row[0], (Long) row[1]));
+            }
+            return comments;
+        }, Map.of());
     }
 }
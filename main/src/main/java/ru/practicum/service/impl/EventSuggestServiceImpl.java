@@ -0,0 +1,276 @@
+package ru.practicum.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.dao.EventRepository;
+import ru.practicum.dto.event.EventSuggestionDto;
+import ru.practicum.exception.BadRequestException;
+import ru.practicum.service.AsyncStatsService;
+import ru.practicum.model.EventState;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.EventSuggestService;
+import ru.practicum.service.EventViewsSyncService;
+import ru.practicum.util.PrefixTree;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ключи события - хвосты нормализованного названия, начиная с каждого из первых
+ * max-words-per-title слов, обрезанные до max-key-length символов; префикс запроса обрезается
+ * так же. Вес подсказки - просмотры: events.views при включенной синхронизации просмотров,
+ * иначе - из статистики. Память ограничена max-entries событиями: при переполнении вытесняются
+ * наименее просматриваемые. Просмотры меняются без EventChangedEvent, поэтому веса
+ * раз в rebuild-interval-ms перечитываются заново.
+ * Без индекса подсказки ищет база по тем же ключам; без синхронизации просмотров первые
+ * fallback-candidates совпадений упорядочиваются по статистике.
+ */
+@Service
+@Slf4j
+public class EventSuggestServiceImpl implements EventSuggestService {
+
+    private static final Comparator<Entry> BY_POPULARITY = Comparator.comparingLong(Entry::views).reversed()
+            .thenComparingLong(Entry::id);
+
+    private static final int STATS_BATCH_SIZE = 500;
+
+    private final EventRepository eventRepository;
+    private final EventViewsSyncService eventViewsSyncService;
+    private final AsyncStatsService asyncStatsService;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int maxResults;
+    private final int maxWordsPerTitle;
+    private final int maxKeyLength;
+    private final int fallbackCandidates;
+
+    // запросы тоже меняют дерево (кэш лучших значений узлов), поэтому общий замок без деления на чтение и запись
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PrefixTree<Entry> tree;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> byPopularity = new TreeSet<>(BY_POPULARITY);
+    private Set<Long> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    public EventSuggestServiceImpl(EventRepository eventRepository,
+                                   EventViewsSyncService eventViewsSyncService,
+                                   AsyncStatsService asyncStatsService,
+                                   @Value("${ewm.event-suggest.enabled:false}") boolean enabled,
+                                   @Value("${ewm.event-suggest.max-entries:50000}") int maxEntries,
+                                   @Value("${ewm.event-suggest.max-results:10}") int maxResults,
+                                   @Value("${ewm.event-suggest.max-words-per-title:6}") int maxWordsPerTitle,
+                                   @Value("${ewm.event-suggest.max-key-length:24}") int maxKeyLength,
+                                   @Value("${ewm.event-suggest.fallback-candidates:200}") int fallbackCandidates) {
+        this.eventRepository = eventRepository;
+        this.eventViewsSyncService = eventViewsSyncService;
+        this.asyncStatsService = asyncStatsService;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxResults = maxResults;
+        this.maxWordsPerTitle = maxWordsPerTitle;
+        this.maxKeyLength = maxKeyLength;
+        this.fallbackCandidates = fallbackCandidates;
+        this.tree = new PrefixTree<>(BY_POPULARITY, maxResults);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${ewm.event-suggest.rebuild-interval-ms:600000}",
+            initialDelayString = "${ewm.event-suggest.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        lock.lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.unlock();
+        }
+        List<Object[]> rows = eventRepository.findPublishedTitleRows();
+        Map<Long, Long> views = eventViewsSyncService.isEnabled()
+                ? null
+                : getViews(rows.stream().map(row -> (Long) row[0]).toList());
+        lock.lock();
+        try {
+            // изменения, пришедшие во время чтения, новее строк из базы
+            Set<Long> changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+            tree.clear();
+            byPopularity.clear();
+            Map<Long, Entry> current = new HashMap<>(entries);
+            entries.clear();
+            for (Object[] row : rows) {
+                Long id = (Long) row[0];
+                if (!changed.contains(id)) {
+                    add(new Entry(id, (String) row[1], views == null ? (Long) row[2] : views.getOrDefault(id, 0L)));
+                }
+            }
+            changed.stream()
+                    .map(current::get)
+                    .filter(entry -> entry != null && !entries.containsKey(entry.id()))
+                    .forEach(this::add);
+            ready = true;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Индекс подсказок построен: {} событий за {} мс", entries.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public List<EventSuggestionDto> suggest(String prefix, int limit) {
+        if (limit <= 0) {
+            throw new BadRequestException("Количество подсказок должно быть положительным");
+        }
+        String normalized = normalize(prefix);
+        if (normalized.length() > maxKeyLength) {
+            normalized = normalized.substring(0, maxKeyLength);
+        }
+        int size = Math.min(limit, maxResults);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        if (!ready) {
+            return findInDatabase(normalized, size);
+        }
+        List<Entry> top;
+        lock.lock();
+        try {
+            top = tree.top(normalized, size);
+        } finally {
+            lock.unlock();
+        }
+        return top.stream()
+                .map(entry -> new EventSuggestionDto(entry.id(), entry.title()))
+                .toList();
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.id());
+            }
+            Entry old = entries.get(event.id());
+            if (event.state() != EventState.PUBLISHED) {
+                if (old != null) {
+                    remove(old);
+                }
+                return;
+            }
+            // без синхронизации events.views не растет, вес из статистики сохраняется до пересборки
+            long views = eventViewsSyncService.isEnabled() || old == null ? event.views() : old.views();
+            Entry entry = new Entry(event.id(), event.title(), views);
+            if (!entry.equals(old)) {
+                if (old != null) {
+                    remove(old);
+                }
+                add(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(Entry entry) {
+        if (entries.size() >= maxEntries) {
+            Entry leastPopular = byPopularity.last();
+            if (BY_POPULARITY.compare(entry, leastPopular) > 0) {
+                return;
+            }
+            remove(leastPopular);
+        }
+        entries.put(entry.id(), entry);
+        byPopularity.add(entry);
+        keys(entry.title()).forEach(key -> tree.insert(key, entry));
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.id());
+        byPopularity.remove(entry);
+        keys(entry.title()).forEach(key -> tree.remove(key, entry));
+    }
+
+    private Set<String> keys(String title) {
+        String normalized = normalize(title);
+        Set<String> keys = new LinkedHashSet<>();
+        int start = 0;
+        while (start >= 0 && keys.size() < maxWordsPerTitle) {
+            keys.add(normalized.substring(start, Math.min(normalized.length(), start + maxKeyLength)));
+            int space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean space = true;
+        for (char c : text.toLowerCase(Locale.ROOT).replace('ё', 'е').toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                result.append(c);
+                space = false;
+            } else if (!space) {
+                result.append(' ');
+                space = true;
+            }
+        }
+        int length = result.length();
+        return space && length > 0 ? result.substring(0, length - 1) : result.toString();
+    }
+
+    /**
+     * Те же совпадения, что и в индексе: префикс с начала одного из первых max-words-per-title слов.
+     * В нормализованном префиксе только буквы, цифры и пробелы, экранировать в выражении нечего.
+     */
+    private List<EventSuggestionDto> findInDatabase(String normalized, int size) {
+        String pattern = "^([^ ]+ ){0," + (maxWordsPerTitle - 1) + "}" + normalized;
+        if (eventViewsSyncService.isEnabled()) {
+            return eventRepository.findSuggestions(pattern, size).stream()
+                    .map(row -> new EventSuggestionDto((Long) row[0], (String) row[1]))
+                    .toList();
+        }
+        List<Object[]> rows = eventRepository.findSuggestions(pattern, Math.max(size, fallbackCandidates));
+        Map<Long, Long> views = getViews(rows.stream().map(row -> (Long) row[0]).toList());
+        return rows.stream()
+                .map(row -> new Entry((Long) row[0], (String) row[1], views.getOrDefault((Long) row[0], 0L)))
+                .sorted(BY_POPULARITY)
+                .limit(size)
+                .map(entry -> new EventSuggestionDto(entry.id(), entry.title()))
+                .toList();
+    }
+
+    private Map<Long, Long> getViews(List<Long> eventIds) {
+        Map<Long, Long> views = new HashMap<>();
+        for (int from = 0; from < eventIds.size(); from += STATS_BATCH_SIZE) {
+            List<String> uris = eventIds.subList(from, Math.min(eventIds.size(), from + STATS_BATCH_SIZE)).stream()
+                    .map(id -> "/events/" + id)
+                    .toList();
+            asyncStatsService.request(client -> client.getTotalHits(uris), Map.<String, Long>of()).join()
+                    .forEach((uri, hits) -> views.put(Long.valueOf(uri.substring("/events/".length())), hits));
+        }
+        return views;
+    }
+
+    private record Entry(Long id, String title, long views) {
+    }
+}
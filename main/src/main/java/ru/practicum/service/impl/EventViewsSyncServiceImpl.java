@@ -0,0 +1,122 @@
+package ru.practicum.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ViewStatsDto;
+import ru.practicum.client.StatsClient;
+import ru.practicum.dao.EventRepository;
+import ru.practicum.service.EventSearchProjection;
+import ru.practicum.service.EventViewsSyncService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Периодически переносит счётчики просмотров из статистики в колонку events.views: берёт uri,
+ * по которым были просмотры с прошлого запуска (с запасом overlap на отложенную доставку),
+ * и записывает для них полные значения из статистики.
+ */
+@Service
+@Slf4j
+public class EventViewsSyncServiceImpl implements EventViewsSyncService {
+
+    private static final Pattern EVENT_URI = Pattern.compile("^/events/(\\d+)$");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime STATS_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final EventRepository eventRepository;
+    private final StatsClient statsClient;
+    private final TransactionTemplate transactionTemplate;
+    private final EventSearchProjection eventSearchProjection;
+    private final boolean enabled;
+    private final long overlapMs;
+    private final int batchSize;
+
+    private LocalDateTime lastSyncStart;
+
+    public EventViewsSyncServiceImpl(EventRepository eventRepository,
+                                     StatsClient statsClient,
+                                     TransactionTemplate transactionTemplate,
+                                     EventSearchProjection eventSearchProjection,
+                                     @Value("${ewm.views-sync.enabled:false}") boolean enabled,
+                                     @Value("${ewm.views-sync.overlap-ms:300000}") long overlapMs,
+                                     @Value("${ewm.views-sync.batch-size:200}") int batchSize) {
+        this.eventRepository = eventRepository;
+        this.statsClient = statsClient;
+        this.transactionTemplate = transactionTemplate;
+        this.eventSearchProjection = eventSearchProjection;
+        this.enabled = enabled;
+        this.overlapMs = overlapMs;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${ewm.views-sync.interval-ms:60000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime syncStart = LocalDateTime.now();
+        LocalDateTime since = lastSyncStart == null ? STATS_EPOCH : lastSyncStart.minusNanos(overlapMs * 1_000_000);
+        try {
+            List<ViewStatsDto> touched = statsClient.getStats(since.format(DATE_TIME_FORMATTER),
+                    syncStart.format(DATE_TIME_FORMATTER), null, false);
+            Set<String> uris = new LinkedHashSet<>();
+            if (touched != null) {
+                touched.stream()
+                        .map(ViewStatsDto::getUri)
+                        .filter(uri -> EVENT_URI.matcher(uri).matches())
+                        .forEach(uris::add);
+            }
+            int updated = 0;
+            List<String> batch = new ArrayList<>(batchSize);
+            for (String uri : uris) {
+                batch.add(uri);
+                if (batch.size() == batchSize) {
+                    updated += syncBatch(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                updated += syncBatch(batch);
+            }
+            lastSyncStart = syncStart;
+            log.debug("Синхронизация просмотров: uri {}, обновлено событий {}", uris.size(), updated);
+        } catch (Exception e) {
+            log.warn("Не удалось синхронизировать просмотры событий: {}", e.getMessage());
+        }
+    }
+
+    private int syncBatch(List<String> uris) {
+        Map<String, Long> totals = statsClient.getTotalHits(uris);
+        Integer updated = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (String uri : uris) {
+                Matcher matcher = EVENT_URI.matcher(uri);
+                if (matcher.matches()) {
+                    Long eventId = Long.valueOf(matcher.group(1));
+                    Long views = totals.getOrDefault(uri, 0L);
+                    count += eventRepository.updateViews(eventId, views);
+                    eventSearchProjection.updateViews(eventId, views);
+                }
+            }
+            return count;
+        });
+        return updated == null ? 0 : updated;
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.service.impl;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.client.HitSampler;
+import ru.practicum.client.StatsClient;
+import ru.practicum.dao.OutboxHitRepository;
+import ru.practicum.model.OutboxHit;
+import ru.practicum.service.AsyncStatsService;
+import ru.practicum.service.HitOutboxService;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Просмотры пишутся в таблицу stats_outbox в транзакции запроса, а фоновая задача пачками
+ * пересылает их в stats-server. Доставка «как минимум один раз»: строки удаляются только после
+ * успешной отправки, повторы отсекаются на сервере по dedup_key.
+ */
+@Service
+@Slf4j
+public class HitOutboxServiceImpl implements HitOutboxService {
+
+    private final OutboxHitRepository outboxHitRepository;
+    private final StatsClient statsClient;
+    private final AsyncStatsService asyncStatsService;
+    private final HitSampler hitSampler;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong size = new AtomicLong();
+
+    public HitOutboxServiceImpl(OutboxHitRepository outboxHitRepository,
+                                StatsClient statsClient,
+                                AsyncStatsService asyncStatsService,
+                                HitSampler hitSampler,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${stats-server.outbox.enabled:false}") boolean enabled,
+                                @Value("${stats-server.outbox.batch-size:500}") int batchSize) {
+        this.outboxHitRepository = outboxHitRepository;
+        this.statsClient = statsClient;
+        this.asyncStatsService = asyncStatsService;
+        this.hitSampler = hitSampler;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        if (enabled) {
+            Gauge.builder("ewm.stats.outbox.lag.seconds", lagSeconds, AtomicLong::get)
+                    .description("Возраст самого старого неотправленного просмотра")
+                    .register(meterRegistry);
+            Gauge.builder("ewm.stats.outbox.size", size, AtomicLong::get)
+                    .description("Количество неотправленных просмотров")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void record(EndpointHitDto hit) {
+        if (!enabled) {
+            asyncStatsService.saveHit(hit);
+            return;
+        }
+        int weight = hitSampler.weight(hit.getUri(), hit.getIp());
+        if (weight == 0) {
+            return;
+        }
+        outboxHitRepository.save(OutboxHit.builder()
+                .app(hit.getApp())
+                .uri(hit.getUri())
+                .ip(hit.getIp())
+                .timestamp(hit.getTimestamp())
+                .weight(weight)
+                .dedupKey(UUID.randomUUID().toString())
+                .created(LocalDateTime.now())
+                .build());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${stats-server.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Integer sent;
+            do {
+                sent = transactionTemplate.execute(status -> sendBatch());
+            } while (sent != null && sent == batchSize);
+        } catch (Exception e) {
+            log.warn("Не удалось отправить просмотры из outbox: {}", e.getMessage());
+        }
+        // и после неудачной отправки: во время недоступности stats-server лаг как раз растет
+        try {
+            updateMetrics();
+        } catch (Exception e) {
+            log.warn("Не удалось обновить метрики outbox: {}", e.getMessage());
+        }
+    }
+
+    private int sendBatch() {
+        List<OutboxHit> batch = outboxHitRepository.lockBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        statsClient.saveHits(batch.stream()
+                .map(hit -> EndpointHitDto.builder()
+                        .app(hit.getApp())
+                        .uri(hit.getUri())
+                        .ip(hit.getIp())
+                        .timestamp(hit.getTimestamp())
+                        .weight(hit.getWeight())
+                        .dedupKey(hit.getDedupKey())
+                        .build())
+                .toList());
+        outboxHitRepository.deleteAllInBatch(batch);
+        log.debug("Из outbox отправлено просмотров: {}", batch.size());
+        return batch.size();
+    }
+
+    private void updateMetrics() {
+        LocalDateTime oldest = outboxHitRepository.findOldestCreated();
+        lagSeconds.set(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toSeconds());
+        size.set(outboxHitRepository.count());
+    }
+}
@@ -0,0 +1,341 @@
+package ru.practicum.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.dao.EventRepository;
+import ru.practicum.dto.event.EventFacetsDto;
+import ru.practicum.dto.event.filter.EventFilter;
+import ru.practicum.model.EventState;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.PublishedEventIndex;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс опубликованных событий в памяти: битовые карты (Roaring) по категориям, платности
+ * и доступности, плюс массив id, упорядоченный по дате события. Фильтры публичного поиска
+ * без текста и фасеты считаются по индексу, из базы читается только итоговая страница.
+ * Строится при старте и обновляется по EventChangedEvent после коммита.
+ */
+@Service
+@Slf4j
+public class PublishedEventIndexImpl implements PublishedEventIndex {
+
+    private static final int SPARSE_MATCH_RATIO = 16;
+
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap paid = new RoaringBitmap();
+    private final RoaringBitmap available = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private long[] sortedDates = new long[0];
+    private int[] sortedIds = new int[0];
+    private int sortedSize;
+
+    private Set<Integer> changedDuringBuild;
+
+    private volatile boolean ready;
+
+    public PublishedEventIndexImpl(EventRepository eventRepository,
+                                   @Value("${ewm.event-index.enabled:false}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<Object[]> rows = eventRepository.findPublishedIndexRows();
+        lock.writeLock().lock();
+        try {
+            // изменения, пришедшие во время загрузки, новее строк из базы, в том числе снятие с публикации
+            for (Object[] row : rows) {
+                int id = Math.toIntExact((Long) row[0]);
+                if (!changedDuringBuild.contains(id)) {
+                    Entry entry = new Entry((Long) row[1], (Boolean) row[2], toEpoch((LocalDateTime) row[3]),
+                            (Integer) row[4] == 0 || (Integer) row[4] > (Integer) row[5]);
+                    entries.put(id, entry);
+                    addToBitmaps(id, entry);
+                }
+            }
+            changedDuringBuild = null;
+            rebuildSorted();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс опубликованных событий построен: {} событий за {} мс",
+                entries.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        int id = Math.toIntExact(event.id());
+        lock.writeLock().lock();
+        try {
+            if (changedDuringBuild != null) {
+                changedDuringBuild.add(id);
+            }
+            Entry old = entries.remove(id);
+            if (old != null) {
+                removeFromBitmaps(id, old);
+                removeSorted(old.eventDate, id);
+            }
+            if (event.state() == EventState.PUBLISHED) {
+                Entry entry = new Entry(event.categoryId(), event.paid(), toEpoch(event.eventDate()), event.isAvailable());
+                entries.put(id, entry);
+                addToBitmaps(id, entry);
+                insertSorted(entry.eventDate, id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<List<Long>> findIds(EventFilter filter, Sort sort, long offset, int limit) {
+        if (!ready || !supports(filter) || !(BY_ID.equals(sort) || BY_EVENT_DATE.equals(sort))) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matched = match(filter, true, true);
+            return Optional.of(BY_ID.equals(sort)
+                    ? pageById(matched, offset, limit)
+                    : pageByEventDate(matched, filter, offset, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<EventFacetsDto> facets(EventFilter filter) {
+        if (!ready || !supports(filter)) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            long total = match(filter, true, true).getLongCardinality();
+            // фасет не сужается своим же фильтром: по категориям считается без фильтра категорий
+            RoaringBitmap withoutCategories = match(filter, false, true);
+            Map<Long, Long> categories = new HashMap<>();
+            byCategory.forEach((categoryId, bitmap) -> {
+                long count = RoaringBitmap.andCardinality(withoutCategories, bitmap);
+                if (count > 0) {
+                    categories.put(categoryId, count);
+                }
+            });
+            RoaringBitmap withoutPaid = match(filter, true, false);
+            long paidCount = RoaringBitmap.andCardinality(withoutPaid, paid);
+            return Optional.of(new EventFacetsDto(total, categories, paidCount,
+                    withoutPaid.getLongCardinality() - paidCount));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap match(EventFilter filter, boolean byCategories, boolean byPaid) {
+        RoaringBitmap result = all.clone();
+        if (byCategories && filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+            result.and(FastAggregation.or(filter.getCategories().stream()
+                    .map(byCategory::get)
+                    .filter(Objects::nonNull)
+                    .iterator()));
+        }
+        if (byPaid && filter.getPaid() != null) {
+            if (filter.getPaid()) {
+                result.and(paid);
+            } else {
+                result.andNot(paid);
+            }
+        }
+        if (Boolean.TRUE.equals(filter.getOnlyAvailable())) {
+            result.and(available);
+        }
+        if (filter.getRangeStart() != null || filter.getRangeEnd() != null) {
+            int from = lowerBound(filter.getRangeStart());
+            int to = upperBound(filter.getRangeEnd());
+            RoaringBitmap inRange = new RoaringBitmap();
+            if (from < to) {
+                inRange.add(Arrays.copyOfRange(sortedIds, from, to));
+            }
+            result.and(inRange);
+        }
+        return result;
+    }
+
+    private List<Long> pageById(RoaringBitmap matched, long offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        if (offset >= matched.getLongCardinality()) {
+            return ids;
+        }
+        PeekableIntIterator iterator = matched.getIntIterator();
+        iterator.advanceIfNeeded(matched.select((int) offset));
+        while (iterator.hasNext() && ids.size() < limit) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+
+    private List<Long> pageByEventDate(RoaringBitmap matched, EventFilter filter, long offset, int limit) {
+        int from = lowerBound(filter.getRangeStart());
+        int to = upperBound(filter.getRangeEnd());
+        if (matched.getLongCardinality() * SPARSE_MATCH_RATIO < to - from) {
+            // совпадений мало относительно диапазона дат: дешевле отсортировать их, чем пройти весь диапазон
+            return matched.stream()
+                    .boxed()
+                    .sorted((a, b) -> compare(entries.get(a).eventDate, a, entries.get(b).eventDate, b))
+                    .skip(offset)
+                    .limit(limit)
+                    .map(Integer::longValue)
+                    .toList();
+        }
+        List<Long> ids = new ArrayList<>(limit);
+        long skip = offset;
+        for (int i = from; i < to && ids.size() < limit; i++) {
+            if (matched.contains(sortedIds[i])) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    ids.add((long) sortedIds[i]);
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void addToBitmaps(int id, Entry entry) {
+        all.add(id);
+        byCategory.computeIfAbsent(entry.categoryId, key -> new RoaringBitmap()).add(id);
+        if (entry.paid) {
+            paid.add(id);
+        }
+        if (entry.available) {
+            available.add(id);
+        }
+    }
+
+    private void removeFromBitmaps(int id, Entry entry) {
+        all.remove(id);
+        RoaringBitmap category = byCategory.get(entry.categoryId);
+        category.remove(id);
+        if (category.isEmpty()) {
+            byCategory.remove(entry.categoryId);
+        }
+        paid.remove(id);
+        available.remove(id);
+    }
+
+    private void rebuildSorted() {
+        int[] ids = entries.keySet().stream()
+                .sorted((a, b) -> compare(entries.get(a).eventDate, a, entries.get(b).eventDate, b))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        sortedIds = ids;
+        sortedDates = Arrays.stream(ids).mapToLong(id -> entries.get(id).eventDate).toArray();
+        sortedSize = ids.length;
+    }
+
+    private void insertSorted(long eventDate, int id) {
+        if (sortedSize == sortedIds.length) {
+            int capacity = Math.max(16, sortedSize + (sortedSize >> 1));
+            sortedIds = Arrays.copyOf(sortedIds, capacity);
+            sortedDates = Arrays.copyOf(sortedDates, capacity);
+        }
+        int position = position(eventDate, id);
+        System.arraycopy(sortedIds, position, sortedIds, position + 1, sortedSize - position);
+        System.arraycopy(sortedDates, position, sortedDates, position + 1, sortedSize - position);
+        sortedIds[position] = id;
+        sortedDates[position] = eventDate;
+        sortedSize++;
+    }
+
+    private void removeSorted(long eventDate, int id) {
+        int position = position(eventDate, id);
+        if (position < sortedSize && sortedIds[position] == id) {
+            System.arraycopy(sortedIds, position + 1, sortedIds, position, sortedSize - position - 1);
+            System.arraycopy(sortedDates, position + 1, sortedDates, position, sortedSize - position - 1);
+            sortedSize--;
+        }
+    }
+
+    /**
+     * Позиция первой записи не меньше (eventDate, id).
+     */
+    private int position(long eventDate, int id) {
+        int low = 0;
+        int high = sortedSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(sortedDates[middle], sortedIds[middle], eventDate, id) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int lowerBound(LocalDateTime start) {
+        return start == null ? 0 : position(toEpoch(start), Integer.MIN_VALUE);
+    }
+
+    private int upperBound(LocalDateTime end) {
+        return end == null ? sortedSize : position(toEpoch(end), Integer.MAX_VALUE);
+    }
+
+    private static int compare(long leftDate, int leftId, long rightDate, int rightId) {
+        int byDate = Long.compare(leftDate, rightDate);
+        return byDate != 0 ? byDate : Integer.compare(leftId, rightId);
+    }
+
+    /**
+     * Текст и координаты индекс не хранит, такие фильтры считает база.
+     */
+    private static boolean supports(EventFilter filter) {
+        return (filter.getText() == null || filter.getText().isBlank()) && !filter.hasGeoFilter();
+    }
+
+    private static long toEpoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private record Entry(Long categoryId, boolean paid, long eventDate, boolean available) {
+    }
+}
@@ -2,8 +2,10 @@ package ru.practicum.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.dao.ArchivedRequestRepository;
 import ru.practicum.dao.EventRepository;
 import ru.practicum.dao.RequestRepository;
 import ru.practicum.dao.UserRepository;
@@ -15,11 +17,14 @@ import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.RequestMapper;
 import ru.practicum.model.*;
+import ru.practicum.service.EventChangedEvent;
+import ru.practicum.service.EventSearchProjection;
 import ru.practicum.service.RequestService;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,9 +33,12 @@ import java.util.stream.Collectors;
 public class RequestServiceImpl implements RequestService {
 
     private final RequestRepository requestRepository;
+    private final ArchivedRequestRepository archivedRequestRepository;
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final RequestMapper requestMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EventSearchProjection eventSearchProjection;
 
     @Override
     public List<ParticipationRequestDto> getEventRequestsByUserId(Long userId, Long eventId) {
@@ -73,6 +81,8 @@ public class RequestServiceImpl implements RequestService {
             requestRepository.saveAll(requests);
             event.setConfirmedRequests(requests.size());
             eventRepository.save(event);
+            eventSearchProjection.refreshEvent(eventId);
+            eventPublisher.publishEvent(EventChangedEvent.of(event));
             List<ParticipationRequestDto> confirmedRequests = requests.stream()
                     .map(requestMapper::toDto)
                     .collect(Collectors.toList());
@@ -112,6 +122,8 @@ public class RequestServiceImpl implements RequestService {
         if (!toConfirm.isEmpty()) {
             event.setConfirmedRequests(toConfirm.size());
             eventRepository.save(event);
+            eventSearchProjection.refreshEvent(eventId);
+            eventPublisher.publishEvent(EventChangedEvent.of(event));
         }
         List<ParticipationRequestDto> confirmedDtos = toConfirm.stream()
                 .map(requestMapper::toDto)
@@ -164,8 +176,11 @@ public class RequestServiceImpl implements RequestService {
     public List<ParticipationRequestDto> getAllUserRequests(Long userId) {
         log.info("Получение All requests текущего пользователя в чужих евентах ");
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Request", "UserId", userId));
-        List<ParticipationRequestDto> requestDtos = requestRepository.findAllByRequesterId(userId).stream()
-                .map(requestMapper::toDto)
+        // заявки на прошедшие события могли уйти в архив вместе с событием
+        List<ParticipationRequestDto> requestDtos = Stream.concat(
+                        requestRepository.findAllByRequesterId(userId).stream().map(requestMapper::toDto),
+                        archivedRequestRepository.findAllByRequesterId(userId).stream().map(requestMapper::toDto))
+                .sorted(Comparator.comparing(ParticipationRequestDto::getId))
                 .collect(Collectors.toList());
         log.debug("Метод завершен кол-во request: {}", requestDtos.size());
         return requestDtos;
@@ -3,18 +3,21 @@ package ru.practicum.service.impl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.dao.UserRepository;
+import ru.practicum.dto.page.CursorPage;
 import ru.practicum.dto.user.RequestUserDto;
 import ru.practicum.dto.user.UserDto;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.mapper.UserMapper;
 import ru.practicum.model.User;
 import ru.practicum.service.UserService;
+import ru.practicum.util.CursorCodec;
+import ru.practicum.util.OffsetPageRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -39,14 +42,28 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserDto> getUsers(List<Long> ids, Integer from, Integer size) {
-        log.info("Получение юзеров с параметрами IDs: {}, from: {}, size: {}", ids, from, size);
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by("id"));
-        Page<User> page = userRepository.findUsersByParam(ids, pageable);
+    public CursorPage<UserDto> getUsers(List<Long> ids, Integer from, Integer size, String cursor) {
+        log.info("Получение юзеров с параметрами IDs: {}, from: {}, size: {}, cursor: {}", ids, from, size, cursor);
+        Sort sort = Sort.by("id");
+        List<User> users;
+        boolean hasNext;
+        if (cursor != null) {
+            Specification<User> spec = (root, query, cb) -> ids == null ? null : root.get("id").in(ids);
+            Window<User> window = userRepository.findBy(spec, q -> q.sortBy(sort)
+                    .limit(size)
+                    .scroll(CursorCodec.decode(cursor, sort)));
+            users = window.getContent();
+            hasNext = window.hasNext();
+        } else {
+            Page<User> page = userRepository.findUsersByParam(ids, new OffsetPageRequest(from, size, sort));
+            users = page.getContent();
+            hasNext = page.hasNext();
+        }
         log.debug("Юзеры получены");
-        return page.stream()
+        String nextCursor = hasNext ? CursorCodec.encode(sort, users.get(users.size() - 1)) : null;
+        return new CursorPage<>(users.stream()
                 .map(userMapper::toDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()), nextCursor);
     }
 
     @Transactional
@@ -0,0 +1,86 @@
+package ru.practicum.util;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import ru.practicum.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Непрозрачный курсор для keyset-пагинации: значения ключей сортировки последней записи
+ * страницы, закодированные в base64url. Курсор привязан к набору полей сортировки.
+ */
+public final class CursorCodec {
+
+    private static final String FIELD_SEPARATOR = "|";
+    private static final String VALUE_SEPARATOR = "=";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Sort sort, Object last) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(last);
+        List<String> fields = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            Object value = wrapper.getPropertyValue(order.getProperty());
+            fields.add(order.getProperty() + VALUE_SEPARATOR + typeOf(value) + value);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(FIELD_SEPARATOR, fields).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetScrollPosition decode(String cursor, Sort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] fields = raw.split("\\" + FIELD_SEPARATOR);
+            List<Sort.Order> orders = sort.toList();
+            if (fields.length != orders.size()) {
+                throw new BadRequestException("Курсор не соответствует сортировке");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 0; i < fields.length; i++) {
+                String[] parts = fields[i].split(VALUE_SEPARATOR, 2);
+                if (parts.length != 2 || !parts[0].equals(orders.get(i).getProperty()) || parts[1].isEmpty()) {
+                    throw new BadRequestException("Курсор не соответствует сортировке");
+                }
+                keys.put(parts[0], parseValue(parts[1]));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Некорректный курсор");
+        }
+    }
+
+    private static char typeOf(Object value) {
+        if (value instanceof LocalDateTime) {
+            return 'd';
+        }
+        if (value instanceof Long) {
+            return 'l';
+        }
+        if (value instanceof Integer) {
+            return 'i';
+        }
+        throw new IllegalStateException("Неподдерживаемый тип ключа курсора: " + value);
+    }
+
+    private static Object parseValue(String value) {
+        String body = value.substring(1);
+        return switch (value.charAt(0)) {
+            case 'd' -> LocalDateTime.parse(body);
+            case 'l' -> Long.valueOf(body);
+            case 'i' -> Integer.valueOf(body);
+            default -> throw new IllegalArgumentException("Неизвестный тип ключа курсора");
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.util;
+
+/**
+ * Расчеты на сфере для поиска событий по координатам.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * Предел широты проекции Меркатора, за ним клетки сетки кластеров не строятся.
+     */
+    public static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Рамка {minLat, minLon, maxLat, maxLon}, содержащая круг радиуса radiusKm.
+     * У полюса рамка охватывает все долготы; minLon > maxLon означает переход через 180-й меридиан.
+     */
+    public static double[] boundingBox(double lat, double lon, double radiusKm) {
+        double deltaLat = radiusKm / KM_PER_DEGREE;
+        double minLat = Math.max(-90, lat - deltaLat);
+        double maxLat = Math.min(90, lat + deltaLat);
+        if (minLat == -90 || maxLat == 90) {
+            return new double[]{minLat, -180, maxLat, 180};
+        }
+        double deltaLon = deltaLat / Math.cos(Math.toRadians(Math.max(Math.abs(minLat), Math.abs(maxLat))));
+        if (deltaLon >= 180) {
+            return new double[]{minLat, -180, maxLat, 180};
+        }
+        return new double[]{minLat, normalizeLon(lon - deltaLon), maxLat, normalizeLon(lon + deltaLon)};
+    }
+
+    /**
+     * Номер столбца клетки сетки уровня level (2^level клеток по каждой оси).
+     */
+    public static int cellX(double lon, int level) {
+        int cells = 1 << level;
+        return Math.min(cells - 1, Math.max(0, (int) Math.floor((lon + 180) / 360 * cells)));
+    }
+
+    /**
+     * Номер строки клетки сетки уровня level в проекции Меркатора, сверху вниз.
+     */
+    public static int cellY(double lat, int level) {
+        int cells = 1 << level;
+        double clamped = Math.toRadians(Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, lat)));
+        double y = (1 - Math.log(Math.tan(clamped) + 1 / Math.cos(clamped)) / Math.PI) / 2;
+        return Math.min(cells - 1, Math.max(0, (int) Math.floor(y * cells)));
+    }
+
+    private static double normalizeLon(double lon) {
+        if (lon > 180) {
+            return lon - 360;
+        }
+        if (lon < -180) {
+            return lon + 360;
+        }
+        return lon;
+    }
+}
@@ -0,0 +1,214 @@
+package ru.practicum.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сжатое префиксное дерево (radix tree) с лучшими topK значениями в каждом узле.
+ * Узлов не больше удвоенного числа ключей. Лучшие значения узла кэшируются; при вставке
+ * и удалении кэш сбрасывается только на пути ключа, поэтому запрос по префиксу обходит
+ * лишь узлы, измененные с прошлого запроса. Одно значение может лежать под несколькими
+ * ключами и в ответ попадает один раз. Класс не потокобезопасен.
+ */
+public class PrefixTree<T> {
+
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+    private final Comparator<T> order;
+    private final int topK;
+    private final Node<T> root = new Node<>("");
+
+    /**
+     * @param order порядок значений, первыми идут лучшие
+     * @param topK  сколько лучших значений хранит узел, больше запросить нельзя
+     */
+    public PrefixTree(Comparator<T> order, int topK) {
+        this.order = order;
+        this.topK = topK;
+    }
+
+    public void insert(String key, T value) {
+        Node<T> node = root;
+        node.top = null;
+        String rest = key;
+        while (!rest.isEmpty()) {
+            int index = node.indexOf(rest.charAt(0));
+            if (index < 0) {
+                Node<T> leaf = new Node<>(rest);
+                node.insertChild(-index - 1, leaf);
+                node = leaf;
+                break;
+            }
+            Node<T> child = node.children[index];
+            int common = commonPrefix(child.label, rest);
+            if (common < child.label.length()) {
+                Node<T> middle = new Node<>(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = newChildren(child);
+                node.children[index] = middle;
+                child = middle;
+            }
+            child.top = null;
+            node = child;
+            rest = rest.substring(common);
+        }
+        if (node.values == null) {
+            node.values = new ArrayList<>(1);
+        }
+        node.values.add(value);
+    }
+
+    public void remove(String key, T value) {
+        List<Node<T>> path = new ArrayList<>();
+        Node<T> node = root;
+        path.add(node);
+        String rest = key;
+        while (!rest.isEmpty()) {
+            int index = node.indexOf(rest.charAt(0));
+            if (index < 0 || !rest.startsWith(node.children[index].label)) {
+                return;
+            }
+            node = node.children[index];
+            rest = rest.substring(node.label.length());
+            path.add(node);
+        }
+        if (node.values == null || !node.values.remove(value)) {
+            return;
+        }
+        if (node.values.isEmpty()) {
+            node.values = null;
+        }
+        path.forEach(n -> n.top = null);
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node<T> current = path.get(i);
+            if (current.values == null && current.children.length == 0) {
+                path.get(i - 1).removeChild(current);
+                continue;
+            }
+            if (current.values == null && current.children.length == 1) {
+                Node<T> only = current.children[0];
+                current.label = current.label + only.label;
+                current.children = only.children;
+                current.values = only.values;
+                current.top = only.top;
+            }
+            break;
+        }
+    }
+
+    /**
+     * Не больше limit (и topK) лучших значений, ключи которых начинаются с prefix.
+     */
+    public List<T> top(String prefix, int limit) {
+        Node<T> node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            int index = node.indexOf(rest.charAt(0));
+            if (index < 0) {
+                return List.of();
+            }
+            Node<T> child = node.children[index];
+            int common = commonPrefix(child.label, rest);
+            if (common == rest.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) {
+                return List.of();
+            }
+            node = child;
+            rest = rest.substring(common);
+        }
+        List<T> top = top(node);
+        return top.size() > limit ? top.subList(0, limit) : top;
+    }
+
+    public void clear() {
+        root.children = newChildren();
+        root.values = null;
+        root.top = null;
+    }
+
+    private List<T> top(Node<T> node) {
+        if (node.top != null) {
+            return node.top;
+        }
+        Map<T, Boolean> candidates = new IdentityHashMap<>();
+        if (node.values != null) {
+            node.values.forEach(value -> candidates.put(value, Boolean.TRUE));
+        }
+        for (Node<T> child : node.children) {
+            top(child).forEach(value -> candidates.put(value, Boolean.TRUE));
+        }
+        List<T> top = candidates.keySet().stream()
+                .sorted(order)
+                .limit(topK)
+                .toList();
+        node.top = top;
+        return top;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private static <T> Node<T>[] newChildren(Node<T>... children) {
+        return children.length == 0 ? (Node<T>[]) NO_CHILDREN : children;
+    }
+
+    private static final class Node<T> {
+        private String label;
+        private Node<T>[] children = newChildren();
+        private List<T> values;
+        private List<T> top;
+
+        private Node(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Дети упорядочены по первому символу метки; при отсутствии - (-(точка вставки) - 1).
+         */
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -low - 1;
+        }
+
+        private void insertChild(int position, Node<T> child) {
+            Node<T>[] updated = Arrays.copyOf(children, children.length + 1);
+            System.arraycopy(children, position, updated, position + 1, children.length - position);
+            updated[position] = child;
+            children = updated;
+        }
+
+        private void removeChild(Node<T> child) {
+            int position = indexOf(child.label.charAt(0));
+            Node<T>[] updated = Arrays.copyOf(children, children.length - 1);
+            System.arraycopy(children, position + 1, updated, position, children.length - position - 1);
+            children = updated.length == 0 ? newChildren() : updated;
+        }
+    }
+}
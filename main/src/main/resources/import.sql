@@ -0,0 +1,11 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (setweight(to_tsvector('russian', coalesce(title, '')), 'A') || setweight(to_tsvector('russian', coalesce(annotation, '')), 'B') || setweight(to_tsvector('russian', coalesce(description, '')), 'C')) STORED;
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_events_annotation_trgm ON events USING GIN (lower(annotation) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_events_description_trgm ON events USING GIN (lower(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_events_location ON events USING GIST (point(lon, lat));
+ALTER TABLE event_search ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (setweight(to_tsvector('russian', coalesce(title, '')), 'A') || setweight(to_tsvector('russian', coalesce(annotation, '')), 'B') || setweight(to_tsvector('russian', coalesce(description, '')), 'C')) STORED;
+CREATE INDEX IF NOT EXISTS idx_event_search_search_vector ON event_search USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_event_search_annotation_trgm ON event_search USING GIN (lower(annotation) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_event_search_description_trgm ON event_search USING GIN (lower(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_event_search_location ON event_search USING GIST (point(lon, lat));
\ No newline at end of file
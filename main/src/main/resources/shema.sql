@@ -39,8 +39,24 @@ CREATE TABLE IF NOT EXISTS events (
     participant_limit INT NOT NULL,
     request_moderation BOOLEAN NOT NULL,
     confirmed_requests INT NOT NULL,
+    views BIGINT NOT NULL DEFAULT 0,
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(annotation, '')), 'B') ||
+        setweight(to_tsvector('russian', coalesce(description, '')), 'C')) STORED,
 );
 
+CREATE INDEX IF NOT EXISTS idx_events_state_event_date ON events (state, event_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_initiator_event_date ON events (initiator_id, event_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_state_views ON events (state, views, id);
+
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_events_annotation_trgm ON events USING GIN (lower(annotation) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_events_description_trgm ON events USING GIN (lower(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_events_location ON events USING GIST (point(lon, lat));
+
 CREATE TABLE  IF NOT EXISTS compilation_events (
     compilation_id BIGINT NOT NULL,
     event_id BIGINT NOT NULL,
@@ -67,4 +83,16 @@ CREATE TABLE IF NOT EXISTS comments (
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     CONSTRAINT fk_comment_to_author FOREIGN KEY(author_id) REFERENCES users(id),
     CONSTRAINT fk_comment_to_event FOREIGN KEY(event_id) REFERENCES events(id)
-    );
\ No newline at end of file
+    );
+CREATE INDEX IF NOT EXISTS idx_comments_event_id ON comments (event_id);
+
+CREATE TABLE IF NOT EXISTS stats_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    app VARCHAR(32) NOT NULL,
+    uri VARCHAR(128) NOT NULL,
+    ip VARCHAR(16) NOT NULL,
+    "timestamp" TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    weight INT NOT NULL,
+    dedup_key VARCHAR(64) NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
@@ -0,0 +1,145 @@
+package ru.practicum.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Число SQL запросов на страницу событий не зависит от ее размера: category и initiator
+ * читаются вместе с событиями, а не по одному запросу на строку. База поднимается
+ * отдельным контейнером PostgreSQL, без Docker тест пропускается.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.show-sql=false",
+        "stats-server.url=http://localhost:1"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIf("dockerAvailable")
+class EventReadStatementCountTest {
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16.1");
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int USERS = 3;
+    private static final int CATEGORIES = 4;
+    private static final int EVENTS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<Long> userIds = new ArrayList<>();
+
+    private final List<Long> eventIds = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    static boolean dockerAvailable() {
+        return DockerClientFactory.instance().isDockerAvailable();
+    }
+
+    @BeforeAll
+    void createEvents() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 1; i <= USERS; i++) {
+            userIds.add(create(post("/admin/users"),
+                    "{\"name\":\"user %d\",\"email\":\"user%d-%s@mail.ru\"}".formatted(i, i, run)));
+        }
+        List<Long> categoryIds = new ArrayList<>();
+        for (int i = 1; i <= CATEGORIES; i++) {
+            categoryIds.add(create(post("/admin/categories"), "{\"name\":\"category %d %s\"}".formatted(i, run)));
+        }
+        for (int i = 1; i <= EVENTS; i++) {
+            String eventDate = LocalDateTime.now().plusDays(i).format(FORMATTER);
+            long eventId = create(post("/users/{userId}/events", userIds.get(i % USERS)),
+                    ("{\"annotation\":\"Аннотация события номер %d\","
+                    + "\"category\":%d,\"description\":\"Описание события номер %d для проверки запросов\","
+                    + "\"eventDate\":\"%s\",\"location\":{\"lat\":55.75,\"lon\":37.61},"
+                    + "\"title\":\"Событие %d\",\"paid\":false,\"participantLimit\":0}")
+                    .formatted(i, categoryIds.get(i % CATEGORIES), i, eventDate, i));
+            perform(patch("/admin/events/{eventId}", eventId), "{\"stateAction\":\"PUBLISH_EVENT\"}");
+            eventIds.add(eventId);
+        }
+    }
+
+    @Test
+    void publicSearchPage() throws Exception {
+        assertEquals(2, countStatements(get("/events").param("size", "2")));
+        assertEquals(2, countStatements(get("/events").param("size", "10")));
+    }
+
+    @Test
+    void publicEventById() throws Exception {
+        assertEquals(2, countStatements(get("/events/{eventId}", eventIds.get(0))));
+        assertEquals(2, countStatements(get("/events/{eventId}", eventIds.get(1))));
+    }
+
+    @Test
+    void initiatorEvents() throws Exception {
+        // пользователь, проверка событий в архиве и страница
+        assertEquals(3, countStatements(get("/users/{userId}/events", userIds.get(0)).param("size", "2")));
+        assertEquals(3, countStatements(get("/users/{userId}/events", userIds.get(0)).param("size", "10")));
+    }
+
+    @Test
+    void adminSearchPage() throws Exception {
+        assertEquals(2, countStatements(get("/admin/events").param("size", "2")));
+        assertEquals(2, countStatements(get("/admin/events").param("size", "10")));
+    }
+
+    private long countStatements(RequestBuilder request) throws Exception {
+        statistics.clear();
+        mockMvc.perform(request).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long create(MockHttpServletRequestBuilder request, String body) throws Exception {
+        String response = perform(request, body);
+        return JsonPath.<Number>read(response, "$.id").longValue();
+    }
+
+    private String perform(MockHttpServletRequestBuilder request, String body) throws Exception {
+        return mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,236 @@
+package ru.practicum.client;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.ViewStatsDto;
+import ru.practicum.storage.EndpointHitStorage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static ru.practicum.Constants.DATE_TIME_FORMATTER;
+
+/**
+ * Клиент статистики для совместного размещения с stats-server: просмотры пишутся
+ * пачками из очереди в памяти прямо в базу статистики, без HTTP и JSON.
+ * Схема таблицы и запросы статистики общие с stats-server: {@link EndpointHitStorage}.
+ * Чтение не ждет очередь: просмотры видны после записи пачки, то есть с задержкой до flush-interval-ms.
+ * Запись идет мимо stats-server, поэтому фильтр повторов stats.dedup не применяется (повторы
+ * отсекает только dedup_key), а подписчики /stats/subscribe не получают эти просмотры: с
+ * подпиской счетчики других экземпляров в режиме http отстают до resync-interval-ms.
+ */
+@Service
+@ConditionalOnProperty(name = "stats-server.mode", havingValue = "embedded")
+@Slf4j
+public class EmbeddedStatsClient implements StatsClient {
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final HikariDataSource dataSource;
+    private final EndpointHitStorage storage;
+    private final BlockingDeque<EndpointHitDto> queue;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final HitSampler hitSampler;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final boolean initSchema;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public EmbeddedStatsClient(@Value("${stats-server.embedded.datasource.url}") String url,
+                               @Value("${stats-server.embedded.datasource.username:}") String username,
+                               @Value("${stats-server.embedded.datasource.password:}") String password,
+                               @Value("${stats-server.embedded.datasource.pool-size:4}") int poolSize,
+                               @Value("${stats-server.embedded.queue-capacity:100000}") int queueCapacity,
+                               @Value("${stats-server.embedded.batch-size:500}") int batchSize,
+                               @Value("${stats-server.embedded.flush-interval-ms:500}") long flushIntervalMs,
+                               @Value("${stats-server.embedded.init-schema:true}") boolean initSchema,
+                               HitSampler hitSampler) {
+        this.dataSource = new HikariDataSource();
+        this.dataSource.setPoolName("embedded-stats");
+        this.dataSource.setJdbcUrl(url);
+        this.dataSource.setUsername(username);
+        this.dataSource.setPassword(password);
+        this.dataSource.setMaximumPoolSize(poolSize);
+        this.storage = new EndpointHitStorage(new NamedParameterJdbcTemplate(dataSource));
+        this.queue = new LinkedBlockingDeque<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.initSchema = initSchema;
+        this.hitSampler = hitSampler;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (initSchema) {
+            storage.createSchema();
+        }
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("embedded-stats-writer")
+                .daemon()
+                .start(this::drainLoop);
+        log.info("Встроенный клиент статистики запущен");
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        flush();
+        dataSource.close();
+    }
+
+    @Override
+    public void saveHit(EndpointHitDto endpointHitDto) {
+        int weight = hitSampler.weight(endpointHitDto.getUri(), endpointHitDto.getIp());
+        if (weight == 0) {
+            return;
+        }
+        if (!queue.offer(endpointHitDto.toBuilder().weight(weight).build())) {
+            log.warn("Очередь просмотров переполнена, просмотр отброшен: {}", endpointHitDto.getUri());
+        }
+    }
+
+    @Override
+    public void saveHits(List<EndpointHitDto> endpointHitDtos) {
+        if (!endpointHitDtos.isEmpty()) {
+            storage.insertIgnoringDuplicates(endpointHitDtos);
+        }
+    }
+
+    @Override
+    public List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique) {
+        LocalDateTime startTime = LocalDateTime.parse(start, DATE_TIME_FORMATTER);
+        LocalDateTime endTime = LocalDateTime.parse(end, DATE_TIME_FORMATTER);
+        if (startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("Start date must be before end date");
+        }
+        return Boolean.TRUE.equals(unique)
+                ? storage.findUniqueStats(startTime, endTime, uris)
+                : storage.findAllStats(startTime, endTime, uris);
+    }
+
+    @Override
+    public Map<String, Long> getTotalHits(List<String> uris) {
+        Map<String, Long> hits = new HashMap<>();
+        String end = LocalDateTime.now().format(DATE_TIME_FORMATTER);
+        getStats("1970-01-01 00:00:00", end, uris, false)
+                .forEach(stat -> hits.merge(stat.getUri(), stat.getHits(), Long::sum));
+        return hits;
+    }
+
+    private void drainLoop() {
+        while (running && !Thread.currentThread().isInterrupted()) {
+            try {
+                EndpointHitDto first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    flush(first);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Не удалось записать пачку просмотров: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void flush() {
+        flush(null);
+    }
+
+    private void flush(EndpointHitDto first) {
+        flushLock.lock();
+        try {
+            List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+            if (first != null) {
+                batch.add(first);
+            }
+            while (queue.drainTo(batch, batchSize - batch.size()) > 0 || !batch.isEmpty()) {
+                if (!write(batch)) {
+                    return;
+                }
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Пока клиент работает, пачка при ошибке базы не теряется: запись повторяется с нарастающей паузой.
+     * Строки, которые база отвергает по ограничениям, пропускаются по одной, чтобы не блокировать очередь.
+     *
+     * @return false, если поток прерван во время паузы; пачка тогда возвращена в начало очереди
+     */
+    private boolean write(List<EndpointHitDto> batch) {
+        long backoffMs = flushIntervalMs;
+        while (true) {
+            try {
+                storage.insertIgnoringDuplicates(batch);
+                log.debug("Записано просмотров: {}", batch.size());
+                return true;
+            } catch (DataIntegrityViolationException e) {
+                insertEach(batch);
+                return true;
+            } catch (DataAccessException e) {
+                if (!running) {
+                    log.warn("Пачка из {} просмотров не записана при остановке: {}", batch.size(), e.getMessage());
+                    return true;
+                }
+                log.warn("Не удалось записать пачку из {} просмотров, повтор через {} мс: {}", batch.size(),
+                        backoffMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                requeue(batch);
+                return false;
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    private void insertEach(List<EndpointHitDto> batch) {
+        int skipped = 0;
+        for (EndpointHitDto hit : batch) {
+            try {
+                storage.insertIgnoringDuplicates(List.of(hit));
+            } catch (DataIntegrityViolationException e) {
+                skipped++;
+                log.warn("Просмотр {} отклонен базой и пропущен: {}", hit.getUri(), e.getMostSpecificCause().getMessage());
+            }
+        }
+        log.debug("Записано просмотров по одному: {}, пропущено {}", batch.size() - skipped, skipped);
+    }
+
+    private void requeue(List<EndpointHitDto> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            if (!queue.offerFirst(batch.get(i))) {
+                log.warn("Очередь просмотров переполнена, не записано просмотров: {}", i + 1);
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Адаптивная выборка просмотров: если поток по uri выше порога, записывается только часть
+ * просмотров с весом 1/доля. Решение принимается по хешу ip и номера интервала window-ms:
+ * внутри интервала посетитель либо весь попадает в выборку, либо нет, а между интервалами
+ * выбор меняется, поэтому частые посетители не смещают сумму просмотров.
+ */
+@Component
+public class HitSampler {
+
+    private static final int MAX_TRACKED_URIS = 10_000;
+
+    private final boolean enabled;
+    private final long maxRatePerUri;
+    private final long windowMs;
+    private final Map<String, UriWindow> windows = new ConcurrentHashMap<>();
+    private final Counter seenHits;
+    private final Counter recordedHits;
+    private final AtomicLong windowSeen = new AtomicLong();
+    private final AtomicLong windowRecorded = new AtomicLong();
+    private volatile double lastRatio = 1.0;
+
+    public HitSampler(@Value("${stats-server.sampling.enabled:false}") boolean enabled,
+                      @Value("${stats-server.sampling.max-rate-per-uri:100}") long maxRatePerUri,
+                      @Value("${stats-server.sampling.window-ms:1000}") long windowMs,
+                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxRatePerUri = maxRatePerUri;
+        this.windowMs = windowMs;
+        this.seenHits = Counter.builder("stats.client.hits.seen")
+                .description("Просмотры, полученные клиентом статистики")
+                .register(meterRegistry);
+        this.recordedHits = Counter.builder("stats.client.hits.recorded")
+                .description("Просмотры, отправленные в статистику после выборки")
+                .register(meterRegistry);
+        Gauge.builder("stats.client.sampling.ratio", this, sampler -> sampler.lastRatio)
+                .description("Доля записанных просмотров за предыдущий интервал window-ms")
+                .register(meterRegistry);
+        Gauge.builder("stats.client.sampling.sampled-uris", windows, w -> w.values().stream()
+                        .filter(window -> window.step > 1)
+                        .count())
+                .description("Количество uri, по которым сейчас идёт выборка")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает вес, с которым нужно записать просмотр, или 0, если просмотр не попал в выборку.
+     */
+    public int weight(String uri, String ip) {
+        seenHits.increment();
+        windowSeen.incrementAndGet();
+        if (!enabled) {
+            return record(1);
+        }
+        long now = System.currentTimeMillis();
+        if (windows.size() > MAX_TRACKED_URIS) {
+            windows.values().removeIf(window -> now - window.start > windowMs * 2);
+        }
+        int step = windows.computeIfAbsent(uri, key -> new UriWindow(now)).hit(now);
+        if (step > 1 && Math.floorMod(mix(ip, now / windowMs), step) != 0) {
+            return 0;
+        }
+        return record(step);
+    }
+
+    private int record(int weight) {
+        recordedHits.increment();
+        windowRecorded.incrementAndGet();
+        return weight;
+    }
+
+    /**
+     * Доля записанных просмотров считается здесь, а метрика только читает результат:
+     * иначе каждый опрос метрики начинал бы окно заново.
+     */
+    @Scheduled(fixedDelayString = "${stats-server.sampling.window-ms:1000}")
+    public void tick() {
+        long seen = windowSeen.getAndSet(0);
+        long recorded = windowRecorded.getAndSet(0);
+        lastRatio = seen == 0 ? 1.0 : (double) recorded / seen;
+    }
+
+    private static int mix(String ip, long interval) {
+        int h = ip.hashCode() ^ (int) (interval * 0x9E3779B9L);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private final class UriWindow {
+        private long start;
+        private long count;
+        private long previousCount;
+        private volatile int step = 1;
+
+        private UriWindow(long start) {
+            this.start = start;
+        }
+
+        private synchronized int hit(long now) {
+            if (now - start >= windowMs) {
+                previousCount = now - start >= windowMs * 2 ? 0 : count;
+                count = 0;
+                start = now;
+            }
+            count++;
+            long rate = Math.max(previousCount, count);
+            if (rate <= maxRatePerUri) {
+                step = 1;
+            } else {
+                long needed = Math.min(1 << 30, (rate + maxRatePerUri - 1) / maxRatePerUri);
+                step = Integer.highestOneBit((int) needed * 2 - 1);
+            }
+            return step;
+        }
+    }
+}
@@ -4,10 +4,15 @@ import ru.practicum.EndpointHitDto;
 import ru.practicum.ViewStatsDto;
 
 import java.util.List;
+import java.util.Map;
 
 public interface StatsClient {
 
     void saveHit(EndpointHitDto endpointHitDto);
 
+    void saveHits(List<EndpointHitDto> endpointHitDtos);
+
     List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique);
+
+    Map<String, Long> getTotalHits(List<String> uris);
 }
\ No newline at end of file
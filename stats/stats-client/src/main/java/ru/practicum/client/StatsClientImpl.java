@@ -1,51 +1,96 @@
 package ru.practicum.client;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriBuilder;
 import ru.practicum.EndpointHitDto;
 import ru.practicum.ViewStatsDto;
 
-import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
+@ConditionalOnProperty(name = "stats-server.mode", havingValue = "http", matchIfMissing = true)
 @Slf4j
 public class StatsClientImpl implements StatsClient {
     private final RestClient restClient;
+    private final StatsSubscription subscription;
+    private final HitSampler hitSampler;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String STATS_EPOCH = "1970-01-01 00:00:00";
+    // базовое значение подписки включает все строки: изменения приходят и для просмотров с будущим timestamp
+    private static final String STATS_END = "9999-12-31 23:59:59";
+    private static final String WATERMARK_HEADER = "X-Stats-Watermark";
 
-    public StatsClientImpl(@Value("${stats-server.url:http://localhost:9090}") String statsServerUrl) {
+    public StatsClientImpl(@Value("${stats-server.url:http://localhost:9090}") String statsServerUrl,
+                           @Value("${stats-server.connect-timeout-ms:2000}") long connectTimeoutMs,
+                           @Value("${stats-server.read-timeout-ms:5000}") long readTimeoutMs,
+                           ObjectProvider<StatsSubscription> subscription,
+                           HitSampler hitSampler) {
+        // java.net.http не блокирует поток-носитель, в отличие от HttpURLConnection с synchronized в keep-alive кэше
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
         this.restClient = RestClient.builder()
                 .baseUrl(statsServerUrl)
+                .requestFactory(requestFactory)
                 .build();
+        this.subscription = subscription.getIfAvailable();
+        this.hitSampler = hitSampler;
     }
 
     @Override
     public void saveHit(EndpointHitDto endpointHitDto) {
-        log.info("Добавление статистики (отправление клиентом): {}", endpointHitDto);
+        int weight = hitSampler.weight(endpointHitDto.getUri(), endpointHitDto.getIp());
+        if (weight == 0) {
+            log.debug("Просмотр {} не попал в выборку", endpointHitDto.getUri());
+            return;
+        }
+        // DTO вызывающего не меняется: он может переиспользовать его или отправить повторно
+        EndpointHitDto hit = endpointHitDto.toBuilder().weight(weight).build();
+        log.info("Добавление статистики (отправление клиентом): {}", hit);
         restClient.post()
                 .uri("/hit")
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(endpointHitDto)
+                .body(hit)
                 .retrieve()
                 .toBodilessEntity();
         log.info("Статистика добавлена");
     }
 
+    @Override
+    public void saveHits(List<EndpointHitDto> endpointHitDtos) {
+        log.info("Отправка пачки статистики, размер {}", endpointHitDtos.size());
+        restClient.post()
+                .uri("/hit/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(endpointHitDtos)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
     @Override
     public List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique) {
         log.info("Получение статистики с параметрами start={}, end={}, uris={}, unique={}", start, end, uris, unique);
         validateTimeRange(start, end);
         List<ViewStatsDto> stats = restClient.get()
-                .uri(uriBuilder -> buildStatsUri(uriBuilder, start, end, uris, unique))
+                .uri(uriBuilder -> statsUri(uriBuilder, start, end, uris, unique).build())
                 .retrieve()
                 .body(new ParameterizedTypeReference<>() {});
 
@@ -53,6 +98,56 @@ public class StatsClientImpl implements StatsClient {
         return stats;
     }
 
+    @Override
+    public Map<String, Long> getTotalHits(List<String> uris) {
+        if (subscription == null || !subscription.isActive()) {
+            return fetchTotalHits(uris);
+        }
+        Map<String, Long> hits = subscription.getTracked(uris);
+        List<String> missing = uris.stream()
+                .filter(uri -> !hits.containsKey(uri))
+                .toList();
+        if (missing.isEmpty()) {
+            return hits;
+        }
+        // uri регистрируется до запроса, чтобы изменения, пришедшие во время запроса, не потерялись
+        missing.forEach(subscription::track);
+        Long watermark = null;
+        try {
+            ResponseEntity<List<ViewStatsDto>> response = restClient.get()
+                    .uri(uriBuilder -> statsUri(uriBuilder, STATS_EPOCH, STATS_END, missing, false)
+                            .queryParam("watermark", true)
+                            .build())
+                    .retrieve()
+                    .toEntity(new ParameterizedTypeReference<>() {});
+            String header = response.getHeaders().getFirst(WATERMARK_HEADER);
+            watermark = header == null ? null : Long.valueOf(header);
+            Map<String, Long> fetched = new HashMap<>();
+            if (response.getBody() != null) {
+                response.getBody().forEach(stat -> fetched.merge(stat.getUri(), stat.getHits(), Long::sum));
+            }
+            for (String uri : missing) {
+                long baseline = fetched.getOrDefault(uri, 0L);
+                hits.put(uri, watermark == null ? baseline : subscription.complete(uri, baseline, watermark));
+            }
+            return hits;
+        } finally {
+            if (watermark == null) {
+                missing.forEach(subscription::untrack);
+            }
+        }
+    }
+
+    private Map<String, Long> fetchTotalHits(List<String> uris) {
+        String end = LocalDateTime.now().format(DATE_TIME_FORMATTER);
+        Map<String, Long> hits = new HashMap<>();
+        List<ViewStatsDto> stats = getStats(STATS_EPOCH, end, uris, false);
+        if (stats != null) {
+            stats.forEach(stat -> hits.merge(stat.getUri(), stat.getHits(), Long::sum));
+        }
+        return hits;
+    }
+
     private void validateTimeRange(String start, String end) {
         Objects.requireNonNull(start, "Start date cannot be null");
         Objects.requireNonNull(end, "End date cannot be null");
@@ -65,8 +160,8 @@ public class StatsClientImpl implements StatsClient {
         }
     }
 
-    private URI buildStatsUri(UriBuilder uriBuilder, String start, String end,
-                              List<String> uris, Boolean unique) {
+    private UriBuilder statsUri(UriBuilder uriBuilder, String start, String end,
+                                List<String> uris, Boolean unique) {
         UriBuilder builder = uriBuilder.path("/stats")
                 .queryParam("start", start)
                 .queryParam("end", end);
@@ -76,6 +171,6 @@ public class StatsClientImpl implements StatsClient {
         if (unique != null) {
             builder.queryParam("unique", unique);
         }
-        return builder.build();
+        return builder;
     }
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+package ru.practicum.client;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import ru.practicum.ViewStatsDto;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Живые счётчики просмотров, которые поддерживаются потоком изменений от stats-server.
+ * Пока подписка не активна, {@link #isActive()} возвращает false и клиент ходит в /stats.
+ * Изменения приходят пачками с возрастающим номером. Uri регистрируется до запроса базового
+ * значения, и пачки, пришедшие до ответа, копятся. Затем сервер сообщает номер последней пачки,
+ * уже учтённой в базовом значении: к счётчику прибавляются только пачки с большим номером.
+ */
+@Component
+@ConditionalOnProperty(name = "stats-server.subscription.enabled", havingValue = "true")
+@Slf4j
+public class StatsSubscription {
+
+    private static final TypeReference<List<ViewStatsDto>> DELTAS_TYPE = new TypeReference<>() {
+    };
+
+    private final RestClient streamClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final long resyncIntervalMs;
+    private final long maxBackoffMs;
+    private final int maxTrackedUris;
+
+    private volatile boolean active;
+    private volatile boolean running;
+    private volatile long syncedAt;
+    private Thread worker;
+
+    public StatsSubscription(@Value("${stats-server.url:http://localhost:9090}") String statsServerUrl,
+                             @Value("${stats-server.subscription.read-timeout-ms:45000}") long readTimeoutMs,
+                             @Value("${stats-server.subscription.resync-interval-ms:300000}") long resyncIntervalMs,
+                             @Value("${stats-server.subscription.max-backoff-ms:30000}") long maxBackoffMs,
+                             @Value("${stats-server.subscription.max-tracked-uris:100000}") int maxTrackedUris) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        this.streamClient = RestClient.builder()
+                .baseUrl(statsServerUrl)
+                .requestFactory(requestFactory)
+                .build();
+        this.resyncIntervalMs = resyncIntervalMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.maxTrackedUris = maxTrackedUris;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform()
+                .name("stats-subscription")
+                .daemon()
+                .start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        active = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    public boolean isActive() {
+        if (active && System.currentTimeMillis() - syncedAt > resyncIntervalMs) {
+            resync();
+        }
+        return active;
+    }
+
+    public Map<String, Long> getTracked(Collection<String> uris) {
+        Map<String, Long> result = new HashMap<>();
+        for (String uri : uris) {
+            Counter counter = counters.get(uri);
+            Long hits = counter == null ? null : counter.get();
+            if (hits != null) {
+                result.put(uri, hits);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Начинает копить изменения uri; вызывается до запроса базового значения.
+     */
+    public void track(String uri) {
+        if (counters.size() >= maxTrackedUris) {
+            log.info("Достигнут лимит отслеживаемых uri ({}), счётчики сброшены", maxTrackedUris);
+            resync();
+        }
+        counters.computeIfAbsent(uri, key -> new Counter());
+    }
+
+    /**
+     * Задает базовое значение с номером последней учтённой в нём пачки и возвращает текущее значение.
+     */
+    public long complete(String uri, long baseline, long watermark) {
+        Counter counter = counters.get(uri);
+        return counter == null ? baseline : counter.complete(baseline, watermark);
+    }
+
+    public void untrack(String uri) {
+        Counter counter = counters.get(uri);
+        if (counter != null && counter.get() == null) {
+            counters.remove(uri, counter);
+        }
+    }
+
+    private void resync() {
+        counters.clear();
+        syncedAt = System.currentTimeMillis();
+    }
+
+    private void listen() {
+        long backoffMs = 1000;
+        while (running) {
+            try {
+                streamClient.get()
+                        .uri("/stats/subscribe")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .exchange((request, response) -> {
+                            if (!response.getStatusCode().is2xxSuccessful()) {
+                                throw new IOException("Подписка отклонена со статусом " + response.getStatusCode());
+                            }
+                            resync();
+                            active = true;
+                            log.info("Подписка на изменения статистики установлена");
+                            readEvents(response.getBody());
+                            return null;
+                        });
+                backoffMs = 1000;
+            } catch (Exception e) {
+                log.warn("Подписка на статистику прервана: {}", e.getMessage());
+            }
+            active = false;
+            counters.clear();
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+        }
+    }
+
+    private void readEvents(InputStream body) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        StringBuilder data = new StringBuilder();
+        long batchId = 0;
+        String line;
+        while (running && (line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (!data.isEmpty()) {
+                    applyDeltas(batchId, data.toString());
+                    data.setLength(0);
+                }
+                batchId = 0;
+            } else if (line.startsWith("id:")) {
+                batchId = Long.parseLong(line.substring(3).trim());
+            } else if (line.startsWith("data:")) {
+                data.append(line.substring(5).trim());
+            }
+        }
+    }
+
+    private void applyDeltas(long batchId, String payload) throws IOException {
+        for (ViewStatsDto delta : objectMapper.readValue(payload, DELTAS_TYPE)) {
+            Counter counter = counters.get(delta.getUri());
+            if (counter != null) {
+                counter.add(batchId, delta.getHits());
+            }
+        }
+    }
+
+    private static final class Counter {
+        private final Map<Long, Long> buffered = new HashMap<>();
+        private long hits;
+        private long watermark = -1;
+
+        private synchronized void add(long batchId, long delta) {
+            if (watermark < 0) {
+                buffered.merge(batchId, delta, Long::sum);
+            } else if (batchId > watermark) {
+                hits += delta;
+            }
+        }
+
+        private synchronized long complete(long baseline, long watermark) {
+            if (this.watermark < 0) {
+                hits = baseline;
+                buffered.forEach((batchId, delta) -> {
+                    if (batchId > watermark) {
+                        hits += delta;
+                    }
+                });
+                buffered.clear();
+                this.watermark = watermark;
+            }
+            return hits;
+        }
+
+        private synchronized Long get() {
+            return watermark < 0 ? null : hits;
+        }
+    }
+}
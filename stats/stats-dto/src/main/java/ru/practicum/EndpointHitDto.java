@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class EndpointHitDto {
 
     @NotBlank(message = "App не может быть пустым")
@@ -32,4 +33,10 @@ public class EndpointHitDto {
     @PastOrPresent(message = "Timestamp не может быть из будущего")
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime timestamp;
+
+    @Positive(message = "Weight должен быть положительным")
+    private Integer weight;
+
+    @Size(max = 64, message = "Кол-во символов в поле dedupKey не более 64")
+    private String dedupKey;
 }
\ No newline at end of file
@@ -3,10 +3,15 @@ package ru.practicum.controller;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.EndpointHitDto;
 import ru.practicum.ViewStatsDto;
 import ru.practicum.service.StatService;
+import ru.practicum.service.StatSubscriptionService;
+import ru.practicum.service.StatsSnapshot;
 
 import java.util.List;
 
@@ -15,8 +20,10 @@ import java.util.List;
 public class StatController {
 
     public static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    public static final String WATERMARK_HEADER = "X-Stats-Watermark";
 
     private final StatService statsService;
+    private final StatSubscriptionService subscriptionService;
 
     @PostMapping("/hit")
     @ResponseStatus(HttpStatus.CREATED)
@@ -24,11 +31,33 @@ public class StatController {
         statsService.save(hitDto);
     }
 
+    @PostMapping("/hit/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void saveAll(@RequestBody List<EndpointHitDto> hitDtos) {
+        statsService.saveAll(hitDtos);
+    }
+
+    /**
+     * С watermark=true в заголовке X-Stats-Watermark возвращается номер последней пачки изменений
+     * подписки, уже учтённой в ответе.
+     */
     @GetMapping("/stats")
-    public List<ViewStatsDto> getStats(@RequestParam String start,
-                                       @RequestParam String end,
-                                       @RequestParam(required = false) List<String> uris,
-                                       @RequestParam(defaultValue = "false") boolean unique) {
-        return statsService.getStats(start, end, uris, unique);
+    public ResponseEntity<List<ViewStatsDto>> getStats(@RequestParam String start,
+                                                       @RequestParam String end,
+                                                       @RequestParam(required = false) List<String> uris,
+                                                       @RequestParam(defaultValue = "false") boolean unique,
+                                                       @RequestParam(defaultValue = "false") boolean watermark) {
+        if (!watermark) {
+            return ResponseEntity.ok(statsService.getStats(start, end, uris, unique));
+        }
+        StatsSnapshot snapshot = statsService.getStatsSnapshot(start, end, uris, unique);
+        return ResponseEntity.ok()
+                .header(WATERMARK_HEADER, String.valueOf(snapshot.watermark()))
+                .body(snapshot.stats());
+    }
+
+    @GetMapping(path = "/stats/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@RequestParam(required = false) List<String> uris) {
+        return subscriptionService.subscribe(uris);
     }
 }
\ No newline at end of file
@@ -1,37 +1,35 @@
 package ru.practicum.dao;
 
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-import ru.practicum.ViewStatsDto;
-import ru.practicum.model.EndpointHit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.storage.EndpointHitStorage;
 
-import java.time.LocalDateTime;
-import java.util.List;
+@Repository
+public class StatRepository extends EndpointHitStorage {
 
-public interface StatRepository extends JpaRepository<EndpointHit, Long> {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean initSchema;
 
-    @Query("""
-            SELECT new ru.practicum.ViewStatsDto(e.app, e.uri, COUNT(DISTINCT e.ip))
-            FROM EndpointHit e
-            WHERE e.timestamp BETWEEN :start AND :end
-            AND (:uris IS NULL OR e.uri IN :uris)
-            GROUP BY e.app, e.uri
-            ORDER BY COUNT(DISTINCT e.ip) DESC
-            """)
-    List<ViewStatsDto> findUniqueStats(@Param("start") LocalDateTime start,
-                                       @Param("end")LocalDateTime end,
-                                       @Param("uris")List<String> uris);
+    public StatRepository(NamedParameterJdbcTemplate jdbcTemplate,
+                          @Value("${stats.init-schema:true}") boolean initSchema) {
+        super(jdbcTemplate);
+        this.jdbcTemplate = jdbcTemplate;
+        this.initSchema = initSchema;
+    }
 
-    @Query("""
-            SELECT new ru.practicum.ViewStatsDto(e.app, e.uri, COUNT(e.ip))
-            FROM EndpointHit e
-            WHERE e.timestamp BETWEEN :start AND :end
-            AND (:uris IS NULL OR e.uri IN :uris)
-            GROUP BY e.app, e.uri
-            ORDER BY COUNT(e.ip) DESC
-            """)
-    List<ViewStatsDto> findAllStats(@Param("start")LocalDateTime start,
-                                    @Param("end")LocalDateTime end,
-                                    @Param("uris")List<String> uris);
-}
\ No newline at end of file
+    @PostConstruct
+    public void init() {
+        if (initSchema) {
+            createSchema();
+        }
+    }
+
+    /**
+     * Пустой запрос, которым транзакция REPEATABLE READ фиксирует свой снимок базы.
+     */
+    public int takeSnapshot() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject("SELECT 1", Integer.class);
+    }
+}
@@ -1,25 +0,0 @@
-package ru.practicum.model;
-
-import jakarta.persistence.*;
-import lombok.*;
-
-import java.time.LocalDateTime;
-
-@Entity
-@Table(name = "endpoint_hits")
-@Getter
-@Setter
-@NoArgsConstructor
-@AllArgsConstructor
-@Builder
-public class EndpointHit {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    private String app;
-    private String uri;
-    private String ip;
-    private LocalDateTime timestamp;
-}
\ No newline at end of file
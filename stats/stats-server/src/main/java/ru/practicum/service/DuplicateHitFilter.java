@@ -0,0 +1,145 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.Counter;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ViewStatsDto;
+import ru.practicum.dao.StatRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Окно подавления повторных просмотров одного uri с одного ip. Первый просмотр в окне
+ * записывается строкой, повторы только копятся в счётчике и при смене окна одним
+ * обновлением добавляются в поле repeats этой строки. Подписчики получают повторы
+ * вместе с этим обновлением, а не в момент просмотра.
+ */
+@Component
+@Slf4j
+public class DuplicateHitFilter {
+
+    private final StatRepository statRepository;
+    private final StatSubscriptionService subscriptionService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxKeys;
+    private final Counter suppressedHits;
+
+    private volatile Map<HitKey, Window> current = new ConcurrentHashMap<>();
+    private volatile Map<HitKey, Window> previous = new ConcurrentHashMap<>();
+
+    public DuplicateHitFilter(StatRepository statRepository,
+                              StatSubscriptionService subscriptionService,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${stats.dedup.enabled:false}") boolean enabled,
+                              @Value("${stats.dedup.max-keys:100000}") int maxKeys) {
+        this.statRepository = statRepository;
+        this.subscriptionService = subscriptionService;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxKeys = maxKeys;
+        this.suppressedHits = Counter.builder("stats.hits.suppressed")
+                .description("Повторные просмотры, не записанные отдельной строкой")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Возвращает true, если просмотр поглощён уже записанной строкой и вставлять его не нужно.
+     */
+    public boolean suppress(String app, String uri, String ip, int weight) {
+        HitKey key = new HitKey(app, uri, ip);
+        Window window = current.get(key);
+        if (window == null) {
+            window = previous.get(key);
+        }
+        if (window == null || !window.add(weight)) {
+            return false;
+        }
+        suppressedHits.increment();
+        return true;
+    }
+
+    public void remember(String app, String uri, String ip, Long hitId) {
+        if (current.size() < maxKeys) {
+            current.putIfAbsent(new HitKey(app, uri, ip), new Window(hitId));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.dedup.window-ms:5000}")
+    public void rotate() {
+        if (!enabled) {
+            return;
+        }
+        Map<HitKey, Window> expired = previous;
+        previous = current;
+        current = new ConcurrentHashMap<>();
+        flush(expired);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (enabled) {
+            flush(previous);
+            flush(current);
+        }
+    }
+
+    private void flush(Map<HitKey, Window> windows) {
+        Map<Long, Long> repeats = new HashMap<>();
+        List<ViewStatsDto> deltas = new ArrayList<>();
+        windows.forEach((key, window) -> {
+            long pending = window.close();
+            if (pending > 0) {
+                repeats.put(window.hitId, pending);
+                deltas.add(new ViewStatsDto(key.app(), key.uri(), pending));
+            }
+        });
+        if (!repeats.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                statRepository.addRepeats(repeats);
+                subscriptionService.registerHits(deltas);
+            });
+            log.debug("Дописаны повторные просмотры в {} строк", repeats.size());
+        }
+    }
+
+    private record HitKey(String app, String uri, String ip) {
+    }
+
+    private static final class Window {
+        private final Long hitId;
+        private long pending;
+        private boolean closed;
+
+        private Window(Long hitId) {
+            this.hitId = hitId;
+        }
+
+        private synchronized boolean add(int weight) {
+            if (closed) {
+                return false;
+            }
+            pending += weight;
+            return true;
+        }
+
+        private synchronized long close() {
+            closed = true;
+            return pending;
+        }
+    }
+}
@@ -9,5 +9,12 @@ public interface StatService {
 
     void save(EndpointHitDto endpointHitDto);
 
+    void saveAll(List<EndpointHitDto> endpointHitDtos);
+
     List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique);
+
+    /**
+     * То же, что getStats, вместе с номером последней учтённой пачки изменений подписки.
+     */
+    StatsSnapshot getStatsSnapshot(String start, String end, List<String> uris, boolean unique);
 }
\ No newline at end of file
@@ -1,25 +1,30 @@
 package ru.practicum.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.EndpointHitDto;
 import ru.practicum.ViewStatsDto;
 import ru.practicum.dao.StatRepository;
-import ru.practicum.mapper.EndpointHitMapper;
-import ru.practicum.model.EndpointHit;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class StatServiceImpl implements StatService {
     private final StatRepository statRepository;
-    private final EndpointHitMapper endpointHitMapper;
+    private final StatSubscriptionService subscriptionService;
+    private final DuplicateHitFilter duplicateHitFilter;
+    private final Validator validator;
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     @Transactional
@@ -30,11 +35,77 @@ public class StatServiceImpl implements StatService {
             log.warn("Невозможно сохранить просмотр — параметр EndpointHitDto равен null.");
             throw new IllegalArgumentException("Параметр EndpointHitDto не может быть null.");
         }
-        EndpointHit endpointHit = endpointHitMapper.toEntity(endpointHitDto);
-        statRepository.save(endpointHit);
+        boolean deduplicate = duplicateHitFilter.isEnabled() && endpointHitDto.getDedupKey() == null;
+        if (deduplicate && duplicateHitFilter.suppress(endpointHitDto.getApp(), endpointHitDto.getUri(),
+                endpointHitDto.getIp(), weight(endpointHitDto))) {
+            log.debug("Повторный просмотр учтён без новой строки");
+            return;
+        }
+        Long id = statRepository.insert(endpointHitDto);
+        if (id == null) {
+            log.debug("Просмотр с ключом {} уже записан", endpointHitDto.getDedupKey());
+            return;
+        }
+        subscriptionService.registerHits(List.of(toDelta(endpointHitDto)));
+        if (deduplicate) {
+            duplicateHitFilter.remember(endpointHitDto.getApp(), endpointHitDto.getUri(), endpointHitDto.getIp(), id);
+        }
         log.info("Просмотр успешно сохранен");
     }
 
+    @Transactional
+    @Override
+    public void saveAll(List<EndpointHitDto> endpointHitDtos) {
+        log.debug("Попытка сохранить пачку просмотров, размер {}", endpointHitDtos.size());
+        if (endpointHitDtos.isEmpty()) {
+            return;
+        }
+        List<EndpointHitDto> hits = endpointHitDtos.stream()
+                .filter(this::isValid)
+                .toList();
+        List<EndpointHitDto> inserted = hits.isEmpty() ? List.of() : statRepository.insertIgnoringDuplicates(hits);
+        subscriptionService.registerHits(inserted.stream().map(this::toDelta).toList());
+        log.info("Пачка просмотров сохранена: новых {}, повторов {}, пропущено некорректных {}", inserted.size(),
+                hits.size() - inserted.size(), endpointHitDtos.size() - hits.size());
+    }
+
+    private ViewStatsDto toDelta(EndpointHitDto hit) {
+        return new ViewStatsDto(hit.getApp(), hit.getUri(), (long) weight(hit));
+    }
+
+    private int weight(EndpointHitDto hit) {
+        return hit.getWeight() == null ? 1 : hit.getWeight();
+    }
+
+    /**
+     * Некорректная строка пачки пропускается, а не отклоняет пачку целиком: отправитель
+     * повторял бы такую пачку бесконечно.
+     */
+    private boolean isValid(EndpointHitDto endpointHitDto) {
+        if (endpointHitDto == null) {
+            log.warn("Пустой просмотр в пачке пропущен");
+            return false;
+        }
+        Set<ConstraintViolation<EndpointHitDto>> violations = validator.validate(endpointHitDto);
+        if (!violations.isEmpty()) {
+            log.warn("Просмотр из пачки пропущен: {}", violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .collect(Collectors.joining(", ")));
+        }
+        return violations.isEmpty();
+    }
+
+    /**
+     * В REPEATABLE READ снимок базы берется первым запросом транзакции, поэтому и статистика
+     * считается по снимку, сделанному под {@link StatSubscriptionService#watermark}.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    @Override
+    public StatsSnapshot getStatsSnapshot(String start, String end, List<String> uris, boolean unique) {
+        long watermark = subscriptionService.watermark(statRepository::takeSnapshot);
+        return new StatsSnapshot(getStats(start, end, uris, unique), watermark);
+    }
+
     @Override
     public List<ViewStatsDto> getStats(String start, String end, List<String> uris, boolean unique) {
         log.info("Попытка получить статистику просмотров");
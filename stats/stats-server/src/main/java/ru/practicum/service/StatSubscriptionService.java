@@ -0,0 +1,22 @@
+package ru.practicum.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.ViewStatsDto;
+
+import java.util.List;
+
+public interface StatSubscriptionService {
+
+    SseEmitter subscribe(List<String> uris);
+
+    /**
+     * Изменения счётчиков уходят подписчикам после коммита текущей транзакции, откат их отбрасывает.
+     */
+    void registerHits(List<ViewStatsDto> hits);
+
+    /**
+     * Выполняет snapshot, пока ни одна транзакция с просмотрами не коммитится, и возвращает номер
+     * последней пачки изменений, учтённой в снимке: пачки с большим номером в нём не учтены.
+     */
+    long watermark(Runnable snapshot);
+}
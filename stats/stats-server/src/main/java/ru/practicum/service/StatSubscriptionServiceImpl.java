@@ -0,0 +1,190 @@
+package ru.practicum.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.ViewStatsDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Изменения копятся в пачку и раз в flush-interval-ms уходят подписчикам с номером пачки в id события.
+ * Транзакции с просмотрами держат commitLock на чтение от коммита до добавления в пачку, поэтому
+ * {@link #watermark} под блокировкой на запись видит каждую закрытую им пачку целиком в базе,
+ * а все следующие - нет.
+ */
+@Service
+@Slf4j
+public class StatSubscriptionServiceImpl implements StatSubscriptionService {
+
+    private static final String HITS_EVENT = "hits";
+
+    private final long emitterTimeoutMs;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ReadWriteLock commitLock = new ReentrantReadWriteLock();
+    private final Queue<Batch> closedBatches = new ConcurrentLinkedQueue<>();
+
+    private volatile Map<HitKey, Long> pendingDeltas = new ConcurrentHashMap<>();
+    private long sequence;
+
+    public StatSubscriptionServiceImpl(@Value("${stats.subscription.emitter-timeout-ms:0}") long emitterTimeoutMs) {
+        this.emitterTimeoutMs = emitterTimeoutMs;
+    }
+
+    @Override
+    public SseEmitter subscribe(List<String> uris) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, uris == null || uris.isEmpty() ? null : new HashSet<>(uris));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.info("Новая подписка на статистику, uris={}, всего подписчиков {}", uris, subscribers.size());
+        return emitter;
+    }
+
+    @Override
+    public void registerHits(List<ViewStatsDto> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commitLock.readLock().lock();
+            try {
+                merge(hits);
+            } finally {
+                commitLock.readLock().unlock();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean locked;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitLock.readLock().lock();
+                locked = true;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (!locked) {
+                    return;
+                }
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        merge(hits);
+                    }
+                } finally {
+                    commitLock.readLock().unlock();
+                }
+            }
+        });
+    }
+
+    @Override
+    public long watermark(Runnable snapshot) {
+        commitLock.writeLock().lock();
+        try {
+            snapshot.run();
+            return closeBatch();
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.subscription.flush-interval-ms:1000}")
+    public void flush() {
+        commitLock.writeLock().lock();
+        try {
+            closeBatch();
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+        Batch closed;
+        while ((closed = closedBatches.poll()) != null) {
+            if (subscribers.isEmpty()) {
+                continue;
+            }
+            List<ViewStatsDto> deltas = new ArrayList<>();
+            closed.deltas().forEach((key, delta) -> deltas.add(new ViewStatsDto(key.app(), key.uri(), delta)));
+            for (Subscriber subscriber : subscribers) {
+                List<ViewStatsDto> batch = subscriber.filter(deltas);
+                if (!batch.isEmpty()) {
+                    send(subscriber, SseEmitter.event().id(String.valueOf(closed.id())).name(HITS_EVENT).data(batch));
+                }
+            }
+            log.debug("Отправлено {} изменений счётчиков {} подписчикам", deltas.size(), subscribers.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${stats.subscription.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            send(subscriber, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    private void merge(List<ViewStatsDto> hits) {
+        Map<HitKey, Long> deltas = pendingDeltas;
+        for (ViewStatsDto hit : hits) {
+            deltas.merge(new HitKey(hit.getApp(), hit.getUri()), hit.getHits(), Long::sum);
+        }
+    }
+
+    /**
+     * Вызывается под commitLock на запись: текущая пачка закрывается, следующие изменения
+     * получают больший номер.
+     */
+    private long closeBatch() {
+        long id = ++sequence;
+        if (!pendingDeltas.isEmpty()) {
+            closedBatches.add(new Batch(id, pendingDeltas));
+            pendingDeltas = new ConcurrentHashMap<>();
+        }
+        return id;
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter().send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Подписчик отключился: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter().completeWithError(e);
+        }
+    }
+
+    private record HitKey(String app, String uri) {
+    }
+
+    private record Batch(long id, Map<HitKey, Long> deltas) {
+    }
+
+    private record Subscriber(SseEmitter emitter, Set<String> uris) {
+
+        List<ViewStatsDto> filter(List<ViewStatsDto> deltas) {
+            if (uris == null) {
+                return deltas;
+            }
+            return deltas.stream()
+                    .filter(delta -> uris.contains(delta.getUri()))
+                    .toList();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.service;
+
+import ru.practicum.ViewStatsDto;
+
+import java.util.List;
+
+/**
+ * Статистика и номер последней пачки изменений подписки, которая в ней уже учтена.
+ */
+public record StatsSnapshot(List<ViewStatsDto> stats, long watermark) {
+}
@@ -1,10 +0,0 @@
-DROP TABLE IF EXISTS endpoint_hits;
-
-CREATE TABLE IF NOT EXISTS endpoint_hits (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    app VARCHAR(32) NOT NULL,
-    uri VARCHAR(128) NOT NULL,
-    ip VARCHAR(16) NOT NULL,
-    "timestamp" TIMESTAMP WITHOUT TIME ZONE NOT NULL,
-    CONSTRAINT pk_endpoint_hits PRIMARY KEY (id)
-    );
\ No newline at end of file
@@ -0,0 +1,131 @@
+package ru.practicum.storage;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.EndpointHitDto;
+import ru.practicum.ViewStatsDto;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Таблица endpoint_hits: схема, запись просмотров и запросы статистики. Общая для stats-server
+ * и встроенного клиента статистики, который пишет в ту же базу, чтобы схема и подсчет не расходились.
+ */
+@RequiredArgsConstructor
+public class EndpointHitStorage {
+
+    private static final String CREATE_TABLE_SQL = """
+            CREATE TABLE IF NOT EXISTS endpoint_hits (
+                id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                app VARCHAR(32) NOT NULL,
+                uri VARCHAR(128) NOT NULL,
+                ip VARCHAR(16) NOT NULL,
+                "timestamp" TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+                weight INT NOT NULL DEFAULT 1,
+                dedup_key VARCHAR(64) UNIQUE,
+                repeats BIGINT NOT NULL DEFAULT 0
+            )
+            """;
+    private static final String INSERT_SQL = """
+            INSERT INTO endpoint_hits (app, uri, ip, "timestamp", weight, dedup_key)
+            VALUES (:app, :uri, :ip, :timestamp, :weight, :dedupKey)
+            ON CONFLICT DO NOTHING
+            """;
+    private static final String ADD_REPEATS_SQL = "UPDATE endpoint_hits SET repeats = repeats + :repeats WHERE id = :id";
+    private static final String ALL_STATS_SQL = """
+            SELECT app, uri, SUM(weight + repeats) AS hits
+            FROM endpoint_hits
+            WHERE "timestamp" BETWEEN :start AND :end %s
+            GROUP BY app, uri
+            ORDER BY hits DESC
+            """;
+    private static final String UNIQUE_STATS_SQL = """
+            SELECT app, uri, SUM(weight) AS hits
+            FROM (
+                SELECT app, uri, MAX(weight) AS weight
+                FROM endpoint_hits
+                WHERE "timestamp" BETWEEN :start AND :end %s
+                GROUP BY app, uri, ip
+            ) s
+            GROUP BY app, uri
+            ORDER BY hits DESC
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public void createSchema() {
+        jdbcTemplate.getJdbcTemplate().execute(CREATE_TABLE_SQL);
+    }
+
+    /**
+     * @return id новой строки или null, если просмотр с тем же dedup_key уже записан
+     */
+    public Long insert(EndpointHitDto hit) {
+        return jdbcTemplate.query(INSERT_SQL + "RETURNING id", toParams(hit),
+                rs -> rs.next() ? rs.getLong(1) : null);
+    }
+
+    /**
+     * @return записанные просмотры, без повторов по dedup_key
+     */
+    public List<EndpointHitDto> insertIgnoringDuplicates(List<EndpointHitDto> hits) {
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, hits.stream()
+                .map(this::toParams)
+                .toArray(MapSqlParameterSource[]::new));
+        List<EndpointHitDto> inserted = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                inserted.add(hits.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    public void addRepeats(Map<Long, Long> repeatsByHitId) {
+        jdbcTemplate.batchUpdate(ADD_REPEATS_SQL, repeatsByHitId.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("id", entry.getKey())
+                        .addValue("repeats", entry.getValue()))
+                .toArray(MapSqlParameterSource[]::new));
+    }
+
+    public List<ViewStatsDto> findAllStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return findStats(ALL_STATS_SQL, start, end, uris);
+    }
+
+    /**
+     * Один ip учитывается по uri один раз, с наибольшим весом его просмотров.
+     */
+    public List<ViewStatsDto> findUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
+        return findStats(UNIQUE_STATS_SQL, start, end, uris);
+    }
+
+    private List<ViewStatsDto> findStats(String sql, LocalDateTime start, LocalDateTime end, List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", Timestamp.valueOf(start))
+                .addValue("end", Timestamp.valueOf(end));
+        String uriFilter = "";
+        if (uris != null && !uris.isEmpty()) {
+            uriFilter = "AND uri IN (:uris)";
+            params.addValue("uris", uris);
+        }
+        return jdbcTemplate.query(sql.formatted(uriFilter), params, (rs, rowNum) ->
+                new ViewStatsDto(rs.getString("app"), rs.getString("uri"), rs.getLong("hits")));
+    }
+
+    private MapSqlParameterSource toParams(EndpointHitDto hit) {
+        return new MapSqlParameterSource()
+                .addValue("app", hit.getApp())
+                .addValue("uri", hit.getUri())
+                .addValue("ip", hit.getIp())
+                .addValue("timestamp", Timestamp.valueOf(hit.getTimestamp()))
+                .addValue("weight", hit.getWeight() == null ? 1 : hit.getWeight())
+                .addValue("dedupKey", hit.getDedupKey());
+    }
+}